@@ -0,0 +1,31 @@
+package com.freshworks.ex.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks and writes the results as JSON, to jmh-result.json unless -rff names
+ * another file, so runs of different commits can be compared. Accepts the usual JMH options,
+ * e.g. a benchmark name pattern or "-p cases=1000".
+ */
+public final class Benchmarks {
+    private static final String RESULT_FILE = "jmh-result.json";
+
+    private Benchmarks() {
+    }
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        Options options = new OptionsBuilder()
+                .parent(commandLine)
+                .resultFormat(commandLine.getResultFormat().orElse(ResultFormatType.JSON))
+                .result(commandLine.getResult().orElse(RESULT_FILE))
+                .build();
+        new Runner(options).run();
+    }
+}
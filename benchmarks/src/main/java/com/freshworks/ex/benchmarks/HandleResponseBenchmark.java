@@ -0,0 +1,75 @@
+package com.freshworks.ex.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.freshworks.ex.proxy.AbstractProxy;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turning a large listRequesters response into the projected tool result, the path every
+ * tool call takes through {@link AbstractProxy}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HandleResponseBenchmark {
+    private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+    private static final Request REQUEST = new Request.Builder()
+            .url("https://benchmark.freshcmdb.com/api/v2/requesters")
+            .build();
+
+    @Param({"1", "3", "5"})
+    private int megabytes;
+
+    private final RequesterResponses proxy = new RequesterResponses();
+    private byte[] payload;
+
+    @Setup
+    public void setUp() {
+        payload = Payloads.requesters(megabytes).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public JsonNode listRequesters() throws IOException {
+        // A response body can only be read once, building it is cheap next to parsing it
+        Response response = new Response.Builder()
+                .request(REQUEST)
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .message("OK")
+                .body(ResponseBody.create(payload, JSON))
+                .build();
+        return proxy.handle(response, "listRequesters");
+    }
+
+    private static class RequesterResponses extends AbstractProxy {
+        RequesterResponses() {
+            super("benchmark");
+        }
+
+        JsonNode handle(Response response, String action) throws IOException {
+            return handleResponse(response, action);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.freshworks.ex.benchmarks;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.freshworks.ex.scenarios.ModelAttempt;
+import com.freshworks.ex.scenarios.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic payloads shaped like the real responses. A fixed seed keeps every run of a
+ * benchmark on the same data.
+ */
+public final class Payloads {
+    private static final JsonNodeFactory nodes = JsonNodeFactory.instance;
+
+    private Payloads() {
+    }
+
+    /**
+     * @param megabytes Approximate size of the response
+     * @return A Freshservice requester list response of the given size
+     */
+    public static String requesters(int megabytes) {
+        Random random = new Random(42);
+        ObjectNode response = nodes.objectNode();
+        ArrayNode requesters = response.putArray("requesters");
+        int size = 0;
+        for (int i = 0; size < megabytes * 1024 * 1024; i++) {
+            ObjectNode requester = requesters.addObject()
+                    .put("id", 14000000000L + i)
+                    .put("first_name", "Test" + random.nextInt(100_000))
+                    .put("last_name", "User" + random.nextInt(1_000))
+                    .put("job_title", "Test Automation Engineer")
+                    .put("primary_email", "testuser_" + i + "@yopmail.com")
+                    .put("work_phone_number", "9999999999")
+                    .put("mobile_phone_number", "9999999999")
+                    .putNull("reporting_manager_id")
+                    .put("address", i + " Main Street, Chennai")
+                    .put("time_zone", "Chennai")
+                    .put("time_format", "12h")
+                    .put("language", "en")
+                    .putNull("location_id")
+                    .put("background_information", "Automated test contact")
+                    .put("active", random.nextBoolean())
+                    .put("has_logged_in", false)
+                    .put("is_agent", false)
+                    .put("created_at", "2025-07-03T12:47:58Z")
+                    .put("updated_at", "2025-07-03T12:47:58Z");
+            requester.putArray("secondary_emails");
+            requester.putArray("department_ids").add(14000000100L + random.nextInt(20));
+            requester.putObject("custom_fields").put("employee_id", "E" + i).putNull("cost_center");
+            size += requester.toString().length() + 1;
+        }
+        return response.toString();
+    }
+
+    /**
+     * @param count Number of testcases
+     * @return A Freshrelease testcase list response
+     */
+    public static String testCaseList(int count) {
+        ObjectNode response = nodes.objectNode();
+        ArrayNode testCases = response.putArray("test_cases");
+        for (int i = 0; i < count; i++) {
+            ObjectNode testCase = testCases.addObject()
+                    .put("id", 1122375 + i)
+                    .put("key", "TC-" + (61757131 + i))
+                    .put("title", "Requester lifecycle " + i)
+                    .put("steps", steps(i));
+            testCase.putArray("base_tags").addObject().put("name", "SP_Demo");
+            testCase.putObject("custom_field").put("automation_status", "automated");
+        }
+        return response.toString();
+    }
+
+    /**
+     * @param count Number of testcases
+     * @return Executed testcases with a mix of passes, failures and escalations
+     */
+    public static List<TestCase> executedTestCases(int count) {
+        Random random = new Random(42);
+        List<TestCase> testCases = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            TestCase testCase = new TestCase(String.valueOf(1122375 + i), "TC-" + (61757131 + i), steps(i));
+            boolean passed = random.nextInt(10) > 1;
+            testCase.setStatus(passed);
+            testCase.setDuration(5 + random.nextInt(120));
+            testCase.setInputTokens(2_000 + random.nextInt(20_000));
+            testCase.setOutputTokens(200 + random.nextInt(2_000));
+            testCase.setReplayed(random.nextInt(4) == 0);
+            testCase.getAttempts().add(new ModelAttempt("fast", "Azure-GPT-4.1-mini", passed,
+                    testCase.getDuration() * 1000, testCase.getInputTokens(), testCase.getOutputTokens(), 0.01));
+            if (!passed) {
+                testCase.setFailureReason("Requester creation failed with 503");
+            }
+            testCases.add(testCase);
+        }
+        return testCases;
+    }
+
+    /**
+     * @return The execution results the model reports for a testcase
+     */
+    public static String results() {
+        return """
+                TESTCASE_STATUS: PASSED
+                EXECUTION_SUMMARY: Requester created, verified and deleted.
+
+                STEPS_EXECUTED:
+                Step 1: Create a requester with a valid email address. - STATUS: PASSED - RESULT: Requester 14000234324 created
+                Step 1a: Verify that the returned requester has a valid (non-null) requester ID. - STATUS: PASSED
+                Step 1b: Confirm that the email in the returned requester matches the email used for creation. - STATUS: PASSED
+                Step 2: Delete the requester created in the previous step. - STATUS: PASSED
+
+                GENERATED_DATA:
+                - Email: testuser_20250703_124750@yopmail.com
+
+                FINAL_RESULT: All steps passed.
+                """;
+    }
+
+    private static String steps(int i) {
+        return "Create a requester with a valid email address.\n\n"
+                + "Verify that the returned requester has a valid (non-null) requester ID.\n"
+                + "Confirm that the email in the returned requester matches the email used for creation.\n\n"
+                + "Delete the requester created in the previous step (" + i + ").\n"
+                + "Verify that the deletion is successful.";
+    }
+}
@@ -0,0 +1,55 @@
+package com.freshworks.ex.benchmarks;
+
+import com.freshworks.ex.scenarios.TestCase;
+import com.freshworks.ex.utils.HtmlReportGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generating the HTML report for suites of growing size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportBenchmark {
+    @Param({"1000", "10000", "100000"})
+    private int cases;
+
+    private List<TestCase> testCases;
+    private Path report;
+
+    @Setup
+    public void setUp() throws IOException {
+        testCases = Payloads.executedTestCases(cases);
+        report = Files.createTempFile("scriptpilot-report", ".html");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(report);
+    }
+
+    @Benchmark
+    public void generateReport() throws IOException {
+        HtmlReportGenerator.generateReport(testCases, report.toString());
+    }
+}
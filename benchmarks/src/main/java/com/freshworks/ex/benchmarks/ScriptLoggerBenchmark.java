@@ -0,0 +1,43 @@
+package com.freshworks.ex.benchmarks;
+
+import com.freshworks.ex.core.ScriptLogger;
+import com.freshworks.ex.scenarios.TestCase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing the execution log of a finished testcase, into logs/ of the working directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScriptLoggerBenchmark {
+    private ScriptLogger scriptLogger;
+    private TestCase testCase;
+    private String results;
+
+    @Setup
+    public void setUp() {
+        scriptLogger = new ScriptLogger();
+        testCase = Payloads.executedTestCases(1).get(0);
+        results = Payloads.results();
+    }
+
+    @Benchmark
+    public void log() {
+        scriptLogger.log(testCase, results, testCase.getDuration());
+    }
+}
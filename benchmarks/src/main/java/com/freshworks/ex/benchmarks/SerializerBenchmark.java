@@ -0,0 +1,52 @@
+package com.freshworks.ex.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.freshworks.ex.utils.Serializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing and writing requester lists with {@link Serializer}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializerBenchmark {
+    @Param({"1", "5"})
+    private int megabytes;
+
+    private final Serializer serializer = new Serializer();
+    private String payload;
+    private JsonNode tree;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        payload = Payloads.requesters(megabytes);
+        tree = serializer.parse(payload);
+    }
+
+    @Benchmark
+    public JsonNode parse() throws JsonProcessingException {
+        return serializer.parse(payload);
+    }
+
+    @Benchmark
+    public String serialize() throws JsonProcessingException {
+        return serializer.serialize(tree);
+    }
+}
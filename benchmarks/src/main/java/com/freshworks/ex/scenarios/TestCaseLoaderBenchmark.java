@@ -0,0 +1,42 @@
+package com.freshworks.ex.scenarios;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.freshworks.ex.benchmarks.Payloads;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading a full page of 250 testcases from the Freshrelease response.
+ * In the scenarios package to reach {@link TestCaseLoader#parse(String)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TestCaseLoaderBenchmark {
+    private final TestCaseLoader loader = new TestCaseLoader();
+    private String payload;
+
+    @Setup
+    public void setUp() {
+        payload = Payloads.testCaseList(250);
+    }
+
+    @Benchmark
+    public List<TestCase> parse() throws JsonProcessingException {
+        return loader.parse(payload);
+    }
+}
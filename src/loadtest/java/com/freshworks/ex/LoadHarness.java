@@ -0,0 +1,188 @@
+package com.freshworks.ex;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.freshworks.ex.core.RunOptions;
+import com.freshworks.ex.core.ScriptRunner;
+import com.freshworks.ex.mock.MockFreshserviceServer;
+import com.freshworks.ex.mock.ScriptedChatModel;
+import com.freshworks.ex.scenarios.ModelAttempt;
+import com.freshworks.ex.scenarios.TestCase;
+import com.freshworks.ex.utils.Serializer;
+import com.freshworks.ex.utils.clients.BaseUrls;
+import com.freshworks.ex.utils.clients.HttpClients;
+import com.freshworks.ex.utils.clients.RateLimiter;
+import com.freshworks.ex.utils.clients.SingleFlight;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs synthetic testcases through the real {@link ScriptRunner} against the scripted LLM and
+ * the mock Freshservice server, once per concurrency level, and reports throughput, case
+ * latency percentiles, LLM turns and HTTP calls per case, the HTTP connection reuse, the
+ * time requests were throttled by the rate limiter and the identical GETs that were merged.
+ * <p>
+ * Options: --cases n, --levels 1,4,8, --warmup n, --fixture file, --fs-latency ms,
+ * --swagger file and --out file. Any other argument is passed on to the run options,
+ * e.g. "--tool-parallelism 1".
+ */
+public class LoadHarness {
+    static {
+        // The engine logs every tool call, keep the output to the harness summary
+        if (System.getProperty("org.slf4j.simpleLogger.log.com.freshworks.ex") == null) {
+            System.setProperty("org.slf4j.simpleLogger.log.com.freshworks.ex", "warn");
+            System.setProperty("org.slf4j.simpleLogger.log.com.freshworks.ex.LoadHarness", "info");
+        }
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadHarness.class);
+
+    private int cases = 100;
+    private int[] levels = {1, 4, 8, 16};
+    private int warmup = 10;
+    private String fixture = "mock-llm.json";
+    private long fsLatencyMillis = 20;
+    private Path swagger = Paths.get("swagger.yaml");
+    private Path out = Paths.get("load-report.json");
+    private final List<String> runOptions = new ArrayList<>();
+
+    public static void main(String[] args) throws IOException {
+        LoadHarness harness = parse(args);
+        try (MockFreshserviceServer server = new MockFreshserviceServer(0, harness.swagger,
+                harness.fsLatencyMillis, 0)) {
+            // Read by the clients when the proxies are built, so it has to be set before the first runner
+            System.setProperty(BaseUrls.FS_BASE_URL, server.getBaseUrl());
+            harness.run(server);
+        }
+    }
+
+    private void run(MockFreshserviceServer server) throws IOException {
+        if (warmup > 0) {
+            logger.info("Warming up with {} testcases", warmup);
+            level(server, Math.min(warmup, levels[levels.length - 1]), warmup);
+        }
+        List<LevelResult> results = new ArrayList<>();
+        for (int concurrency : levels) {
+            LevelResult result = level(server, concurrency, cases);
+            results.add(result);
+            logger.info(String.format("concurrency %3d: %8.1f cases/min, latency p50 %6d ms, p95 %6d ms, "
+                            + "p99 %6d ms, %.1f LLM turns/case, %.1f HTTP calls/case, %.0f%% connections reused, "
+                            + "%d ms throttled, %d GETs coalesced, %d failed",
+                    result.concurrency(), result.casesPerMinute(), result.p50Millis(), result.p95Millis(),
+                    result.p99Millis(), result.llmTurnsPerCase(), result.httpCallsPerCase(), result.connectionReuse() * 100,
+                    result.throttleWaitMillis(), result.coalescedGets(), result.failed()));
+        }
+        Files.writeString(out, new Serializer().serialize(new Report(cases, fixture, fsLatencyMillis, results)));
+        logger.info("Load report written to {}", out);
+    }
+
+    private LevelResult level(MockFreshserviceServer server, int concurrency, int count) {
+        List<String> args = new ArrayList<>(runOptions);
+        // Replayed plans and cached responses would skip the engine under test
+        args.addAll(List.of("--concurrency", String.valueOf(concurrency), "--mock-llm", fixture,
+                "--no-replay", "--llm-cache", "off"));
+        ScriptRunner runner = new ScriptRunner(RunOptions.parse(args.toArray(String[]::new)));
+        runner.prepare();
+        List<TestCase> testCases = MockFreshserviceServer.testCases(count);
+
+        long llmTurns = ScriptedChatModel.requestCount();
+        long httpCalls = server.requestCount();
+        HttpClients.Stats pool = HttpClients.stats();
+        long throttleWait = RateLimiter.stats().waitMillis();
+        long coalesced = SingleFlight.coalesced();
+        long start = System.nanoTime();
+        runner.execute(testCases);
+        double minutes = (System.nanoTime() - start) / 60e9;
+        llmTurns = ScriptedChatModel.requestCount() - llmTurns;
+        httpCalls = server.requestCount() - httpCalls;
+        HttpClients.Stats poolAfter = HttpClients.stats();
+        long acquired = poolAfter.acquired() - pool.acquired();
+        long opened = poolAfter.opened() - pool.opened();
+        throttleWait = RateLimiter.stats().waitMillis() - throttleWait;
+        coalesced = SingleFlight.coalesced() - coalesced;
+
+        // Time spent running each testcase on the model, which is the whole case without replay
+        long[] latencies = testCases.stream()
+                .mapToLong(tc -> tc.getAttempts().stream().mapToLong(ModelAttempt::durationMillis).sum())
+                .sorted()
+                .toArray();
+        return new LevelResult(concurrency, count, count / minutes, percentile(latencies, 50),
+                percentile(latencies, 95), percentile(latencies, 99), (double) llmTurns / count,
+                (double) httpCalls / count, acquired == 0 ? 0 : (double) Math.max(acquired - opened, 0) / acquired,
+                throttleWait, coalesced, testCases.stream().filter(tc -> !tc.isStatus()).count());
+    }
+
+    /**
+     * Nearest-rank percentile of sorted values.
+     */
+    private static long percentile(long[] sorted, int percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    private static LoadHarness parse(String[] args) {
+        LoadHarness harness = new LoadHarness();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--cases" -> harness.cases = Integer.parseInt(value(args, ++i, arg));
+                case "--levels" -> harness.levels = Arrays.stream(value(args, ++i, arg).split(","))
+                        .mapToInt(level -> Integer.parseInt(level.trim()))
+                        .toArray();
+                case "--warmup" -> harness.warmup = Integer.parseInt(value(args, ++i, arg));
+                case "--fixture" -> harness.fixture = value(args, ++i, arg);
+                case "--fs-latency" -> harness.fsLatencyMillis = Long.parseLong(value(args, ++i, arg));
+                case "--swagger" -> harness.swagger = Paths.get(value(args, ++i, arg));
+                case "--out" -> harness.out = Paths.get(value(args, ++i, arg));
+                default -> harness.runOptions.add(arg);
+            }
+        }
+        if (harness.cases < 1 || harness.levels.length == 0) {
+            throw new IllegalArgumentException("At least one testcase and one concurrency level are required");
+        }
+        return harness;
+    }
+
+    private static String value(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for option: " + option);
+        }
+        return args[index];
+    }
+
+    /**
+     * Results of all concurrency levels, written to the load report.
+     */
+    record Report(@JsonProperty("cases") int cases,
+                  @JsonProperty("fixture") String fixture,
+                  @JsonProperty("fs_latency_ms") long fsLatencyMillis,
+                  @JsonProperty("levels") List<LevelResult> levels) {
+    }
+
+    /**
+     * Results of one concurrency level.
+     */
+    record LevelResult(@JsonProperty("concurrency") int concurrency,
+                       @JsonProperty("cases") int cases,
+                       @JsonProperty("cases_per_minute") double casesPerMinute,
+                       @JsonProperty("p50_ms") long p50Millis,
+                       @JsonProperty("p95_ms") long p95Millis,
+                       @JsonProperty("p99_ms") long p99Millis,
+                       @JsonProperty("llm_turns_per_case") double llmTurnsPerCase,
+                       @JsonProperty("http_calls_per_case") double httpCallsPerCase,
+                       @JsonProperty("connection_reuse") double connectionReuse,
+                       @JsonProperty("throttle_wait_ms") long throttleWaitMillis,
+                       @JsonProperty("coalesced_gets") long coalescedGets,
+                       @JsonProperty("failed") long failed) {
+    }
+}
@@ -0,0 +1,237 @@
+package com.freshworks.ex.mock;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.freshworks.ex.scenarios.TestCase;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Embedded stand-in for a Freshservice tenant and the Freshrelease testcase API, for load
+ * tests on a single machine. Every operation of swagger.yaml answers with an example of its
+ * documented success response; the private workspaces API and the testcase list, which are
+ * not in the document, are served from built-in examples.
+ * <p>
+ * Point the clients at it with FS_BASE_URL and FR_BASE_URL, see {@link com.freshworks.ex.utils.clients.BaseUrls}.
+ */
+public class MockFreshserviceServer implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(MockFreshserviceServer.class);
+    private static final JsonNodeFactory nodes = JsonNodeFactory.instance;
+    private static final String TEST_CASES = "/FS/test_cases";
+    private static final String WORKSPACES = "/api/_/workspaces";
+    private static final Pattern PATH_ID = Pattern.compile("/(\\d+)(?:/[a-z_-]+)?$");
+    // Matched by the scripts of the bundled mock-llm.json
+    private static final List<String> STEPS = List.of(
+            "Create a requester with a valid email address. Verify that the returned requester has a valid id. "
+                    + "Forget the requester created in the previous step.",
+            "Create a department with a unique name. Verify that the department can be fetched by its id. "
+                    + "Delete the department created in the previous step.",
+            "List all agents and all requesters. Verify that both lists are returned.");
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final SwaggerExamples examples;
+    private final long latencyMillis;
+    private final int testCases;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong ids = new AtomicLong(1000);
+
+    /**
+     * Starts the server.
+     *
+     * @param port          Port to listen on, 0 picks a free port
+     * @param swagger       Path of the Freshservice OpenAPI document
+     * @param latencyMillis Time every response takes
+     * @param testCases     Number of testcases returned by the testcase API
+     * @throws IOException if the document cannot be read or the port cannot be bound
+     */
+    public MockFreshserviceServer(int port, Path swagger, long latencyMillis, int testCases) throws IOException {
+        this.examples = SwaggerExamples.load(swagger);
+        this.latencyMillis = latencyMillis;
+        this.testCases = testCases;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 1024);
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "scriptpilot-mock-fs-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+        logger.info("Mock Freshservice listening on {} with {} documented operations", getBaseUrl(), examples.size());
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    /**
+     * @return Number of requests served since the server was started
+     */
+    public long requestCount() {
+        return requests.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requests.incrementAndGet();
+            try (InputStream body = exchange.getRequestBody()) {
+                body.readAllBytes();
+            }
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+            if (path.equals(TEST_CASES)) {
+                send(exchange, 200, testCases());
+            } else if (path.startsWith(WORKSPACES)) {
+                send(exchange, 200, workspaces(method, path));
+            } else {
+                Optional<SwaggerExamples.Route> route = examples.find(method, path);
+                if (route.isPresent()) {
+                    JsonNode body = route.get().body();
+                    Optional<Long> id = method.equals("POST") ? Optional.of(ids.incrementAndGet()) : pathId(path);
+                    send(exchange, route.get().status(), id.isPresent() ? withId(body, id.get()) : body);
+                } else {
+                    logger.debug("No documented operation for {} {}", method, path);
+                    send(exchange, 404, nodes.objectNode().put("code", "not_found")
+                            .put("message", "No documented operation for " + method + " " + path));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, JsonNode body) throws IOException {
+        if (body == null || status == 204) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Gives the resource of a response, e.g. {"requester": {...}}, the id it was created with or
+     * addressed by, so follow-up calls in the same testcase see consistent ids.
+     */
+    private static JsonNode withId(JsonNode body, long id) {
+        if (body == null || !body.isObject() || body.size() != 1) {
+            return body;
+        }
+        Map.Entry<String, JsonNode> resource = body.fields().next();
+        if (!resource.getValue().isObject() || !resource.getValue().has("id")) {
+            return body;
+        }
+        ObjectNode copy = body.deepCopy();
+        ((ObjectNode) copy.get(resource.getKey())).put("id", id);
+        return copy;
+    }
+
+    private static Optional<Long> pathId(String path) {
+        Matcher matcher = PATH_ID.matcher(path);
+        return matcher.find() ? Optional.of(Long.parseLong(matcher.group(1))) : Optional.empty();
+    }
+
+    private JsonNode testCases() {
+        ArrayNode cases = nodes.arrayNode();
+        for (TestCase testCase : testCases(testCases)) {
+            cases.addObject()
+                    .put("id", testCase.getId())
+                    .put("key", testCase.getKey())
+                    .put("steps", testCase.getSteps());
+        }
+        ObjectNode response = nodes.objectNode();
+        response.set("test_cases", cases);
+        return response;
+    }
+
+    /**
+     * @param count Number of testcases
+     * @return Synthetic testcases whose steps match the scripts of the bundled mock-llm.json
+     */
+    public static List<TestCase> testCases(int count) {
+        List<TestCase> testCases = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            testCases.add(new TestCase(String.valueOf(i), String.format("MOCK-%05d", i),
+                    STEPS.get((i - 1) % STEPS.size())));
+        }
+        return testCases;
+    }
+
+    private JsonNode workspaces(String method, String path) {
+        if (method.equals("GET") && path.equals(WORKSPACES)) {
+            ObjectNode response = nodes.objectNode();
+            ArrayNode workspaces = response.putArray("workspaces");
+            workspaces.add(workspace(2, "IT", true));
+            workspaces.add(workspace(3, "HR", false));
+            return response;
+        }
+        ObjectNode response = nodes.objectNode();
+        response.set("workspace", workspace(ids.incrementAndGet(), "Workspace", false));
+        return response;
+    }
+
+    private static ObjectNode workspace(long id, String name, boolean primary) {
+        return nodes.objectNode()
+                .put("id", id)
+                .put("name", name)
+                .put("description", name + " workspace")
+                .put("primary", primary)
+                .put("state", "active")
+                .put("template_type", "it");
+    }
+
+    /**
+     * Runs the server until the JVM is stopped.
+     * Arguments: [port] [latency ms] [testcases], swagger.yaml is read from the working
+     * directory unless SP_MOCK_SWAGGER names another file.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8089;
+        long latency = args.length > 1 ? Long.parseLong(args[1]) : 0;
+        int testCases = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        Path swagger = Paths.get(Optional.ofNullable(System.getenv("SP_MOCK_SWAGGER")).orElse("swagger.yaml"));
+        try (MockFreshserviceServer server = new MockFreshserviceServer(port, swagger, latency, testCases)) {
+            logger.info("Run ScriptPilot with FS_BASE_URL={} FR_BASE_URL={}", server.getBaseUrl(), server.getBaseUrl());
+            Thread.currentThread().join();
+        }
+    }
+}
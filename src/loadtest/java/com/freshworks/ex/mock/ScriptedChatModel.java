@@ -0,0 +1,294 @@
+package com.freshworks.ex.mock;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.freshworks.ex.core.MockLlm;
+import com.freshworks.ex.utils.Serializer;
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.ToolExecutionResultMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.FinishReason;
+import dev.langchain4j.model.output.TokenUsage;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Chat model that answers from a fixture file instead of calling an LLM, for load tests
+ * that must not spend tokens. The fixture holds scripts of turns; the script is chosen by
+ * matching its "match" pattern against the testcase steps, and the n-th response of a
+ * conversation is the n-th turn of the script.
+ * <p>
+ * Tool call arguments may contain {@code {{unique}}}, replaced by a value unique to the
+ * JVM, and {@code {{result:/json/pointer}}}, replaced by the value at the pointer in the
+ * latest tool result that has it. Token usage is estimated at four characters per token.
+ */
+public class ScriptedChatModel implements ChatModel {
+    private static final Serializer serializer = new Serializer();
+    private static final Pattern QUOTED_PLACEHOLDER = Pattern.compile("\"\\{\\{(unique|result:[^}]*)}}\"");
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{\\{(unique|result:[^}]*)}}");
+    private static final AtomicLong unique = new AtomicLong(System.currentTimeMillis());
+    private static final AtomicLong requests = new AtomicLong();
+    private static final int CHARACTERS_PER_TOKEN = 4;
+
+    private final Fixture fixture;
+    private final List<Pattern> matchers = new ArrayList<>();
+    private final String modelName;
+    private final List<ChatModelListener> listeners;
+
+    /**
+     * @param fixture   The scripts to answer from
+     * @param modelName Model name reported in the responses
+     * @param listeners Listeners notified of every request and response
+     */
+    public ScriptedChatModel(Fixture fixture, String modelName, List<ChatModelListener> listeners) {
+        if (fixture.getScripts() == null || fixture.getScripts().isEmpty()) {
+            throw new IllegalArgumentException("The LLM fixture has no scripts");
+        }
+        this.fixture = fixture;
+        this.modelName = modelName;
+        this.listeners = List.copyOf(listeners);
+        for (Script script : fixture.getScripts()) {
+            matchers.add(script.getMatch() == null ? null : Pattern.compile(script.getMatch()));
+        }
+    }
+
+    /**
+     * Loads a fixture from a file, or from the classpath if there is no such file.
+     *
+     * @param location Path or resource name of the fixture
+     * @throws UncheckedIOException if the fixture cannot be read
+     */
+    public static Fixture load(String location) {
+        try {
+            Path path = Paths.get(location);
+            String json;
+            if (Files.exists(path)) {
+                json = Files.readString(path);
+            } else {
+                String resource = location.startsWith("/") ? location : "/" + location;
+                try (InputStream inputStream = ScriptedChatModel.class.getResourceAsStream(resource)) {
+                    if (inputStream == null) {
+                        throw new IOException("No LLM fixture found at " + location);
+                    }
+                    json = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+                }
+            }
+            return serializer.deserialize(json, Fixture.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load LLM fixture " + location, e);
+        }
+    }
+
+    /**
+     * Makes the scripted model available to --mock-llm, registered in META-INF/services.
+     */
+    public static class FixtureProvider implements MockLlm.Provider {
+        @Override
+        public MockLlm load(String fixture) {
+            Fixture loaded = ScriptedChatModel.load(fixture);
+            return (modelName, listeners) -> new ScriptedChatModel(loaded, modelName, listeners);
+        }
+    }
+
+    /**
+     * @return Number of responses given by all scripted models since the JVM was started
+     */
+    public static long requestCount() {
+        return requests.get();
+    }
+
+    @Override
+    public List<ChatModelListener> listeners() {
+        return listeners;
+    }
+
+    @Override
+    public ChatResponse doChat(ChatRequest request) {
+        requests.incrementAndGet();
+        List<ChatMessage> messages = request.messages();
+        List<Turn> turns = script(messages).getTurns();
+        int index = (int) messages.stream().filter(AiMessage.class::isInstance).count();
+        pause();
+
+        AiMessage message;
+        if (index >= turns.size()) {
+            message = AiMessage.from("TESTCASE_STATUS: FAILED\nEXECUTION_SUMMARY: The LLM fixture has no turn "
+                    + (index + 1));
+        } else if (turns.get(index).getToolCalls() == null || turns.get(index).getToolCalls().isEmpty()) {
+            message = AiMessage.from(turns.get(index).getText());
+        } else {
+            List<ToolExecutionRequest> requests = new ArrayList<>();
+            for (ToolCall call : turns.get(index).getToolCalls()) {
+                requests.add(ToolExecutionRequest.builder()
+                        .id("call_" + index + "_" + requests.size())
+                        .name(call.getName())
+                        .arguments(arguments(call, messages))
+                        .build());
+            }
+            message = AiMessage.from(requests);
+        }
+
+        int inputCharacters = messages.stream().mapToInt(m -> m.toString().length()).sum();
+        if (request.toolSpecifications() != null) {
+            inputCharacters += request.toolSpecifications().toString().length();
+        }
+        return ChatResponse.builder()
+                .aiMessage(message)
+                .modelName(modelName)
+                .tokenUsage(new TokenUsage(inputCharacters / CHARACTERS_PER_TOKEN,
+                        message.toString().length() / CHARACTERS_PER_TOKEN))
+                .finishReason(message.hasToolExecutionRequests() ? FinishReason.TOOL_EXECUTION : FinishReason.STOP)
+                .build();
+    }
+
+    private Script script(List<ChatMessage> messages) {
+        String steps = messages.stream()
+                .filter(UserMessage.class::isInstance)
+                .map(m -> ((UserMessage) m).singleText())
+                .findFirst()
+                .orElse("");
+        for (int i = 0; i < matchers.size(); i++) {
+            if (matchers.get(i) == null || matchers.get(i).matcher(steps).find()) {
+                return fixture.getScripts().get(i);
+            }
+        }
+        throw new IllegalStateException("No LLM fixture script matches the testcase steps");
+    }
+
+    private void pause() {
+        long latency = fixture.getLatencyMillis();
+        if (fixture.getJitterMillis() > 0) {
+            latency += ThreadLocalRandom.current().nextLong(fixture.getJitterMillis() + 1);
+        }
+        if (latency <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(latency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the scripted response", e);
+        }
+    }
+
+    private String arguments(ToolCall call, List<ChatMessage> messages) {
+        if (call.getArguments() == null) {
+            return "{}";
+        }
+        String arguments = call.getArguments().toString();
+        // A placeholder that is the whole value takes the type of the result, e.g. a numeric id
+        arguments = replace(QUOTED_PLACEHOLDER, arguments, messages, true);
+        return replace(PLACEHOLDER, arguments, messages, false);
+    }
+
+    private String replace(Pattern pattern, String arguments, List<ChatMessage> messages, boolean json) {
+        Matcher matcher = pattern.matcher(arguments);
+        StringBuilder replaced = new StringBuilder();
+        while (matcher.find()) {
+            JsonNode value = resolve(matcher.group(1), messages);
+            String text = json ? value.toString() : value.asText();
+            matcher.appendReplacement(replaced, Matcher.quoteReplacement(text));
+        }
+        matcher.appendTail(replaced);
+        return replaced.toString();
+    }
+
+    private JsonNode resolve(String placeholder, List<ChatMessage> messages) {
+        if (placeholder.equals("unique")) {
+            return TextNode.valueOf(String.valueOf(unique.incrementAndGet()));
+        }
+        String pointer = placeholder.substring("result:".length());
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            if (messages.get(i) instanceof ToolExecutionResultMessage result) {
+                try {
+                    JsonNode value = serializer.parse(result.text()).at(pointer);
+                    if (!value.isMissingNode()) {
+                        return value;
+                    }
+                } catch (JsonProcessingException e) {
+                    // Not every tool returns JSON, keep looking in the earlier results
+                }
+            }
+        }
+        throw new IllegalStateException("No tool result has a value at " + pointer);
+    }
+
+    @Value
+    @Builder
+    @Jacksonized
+    public static class Fixture {
+        /**
+         * Time every response takes
+         */
+        @JsonProperty("latency_ms")
+        long latencyMillis;
+
+        /**
+         * Random extra time of up to this many milliseconds added to every response
+         */
+        @JsonProperty("jitter_ms")
+        long jitterMillis;
+
+        @JsonProperty("scripts")
+        List<Script> scripts;
+    }
+
+    @Value
+    @Builder
+    @Jacksonized
+    public static class Script {
+        /**
+         * Pattern searched in the testcase steps, null matches every testcase
+         */
+        @JsonProperty("match")
+        String match;
+
+        @JsonProperty("turns")
+        List<Turn> turns;
+    }
+
+    @Value
+    @Builder
+    @Jacksonized
+    public static class Turn {
+        @JsonProperty("text")
+        String text;
+
+        @JsonProperty("tool_calls")
+        List<ToolCall> toolCalls;
+    }
+
+    @Value
+    @Builder
+    @Jacksonized
+    public static class ToolCall {
+        @JsonProperty("name")
+        String name;
+
+        @JsonProperty("arguments")
+        JsonNode arguments;
+    }
+}
@@ -0,0 +1,187 @@
+package com.freshworks.ex.mock;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Example responses of every operation in the Freshservice OpenAPI document, generated from
+ * the response schemas. Schema examples are used where the document has them, otherwise a
+ * placeholder value of the declared type and format.
+ */
+class SwaggerExamples {
+    private static final JsonNodeFactory nodes = JsonNodeFactory.instance;
+    // Deep enough for the nested resources, shallow enough to stop at self references
+    private static final int MAX_DEPTH = 8;
+
+    private final JsonNode document;
+    private final List<Route> routes = new ArrayList<>();
+
+    private SwaggerExamples(JsonNode document) {
+        this.document = document;
+        Iterator<Map.Entry<String, JsonNode>> paths = document.path("paths").fields();
+        while (paths.hasNext()) {
+            Map.Entry<String, JsonNode> path = paths.next();
+            Iterator<Map.Entry<String, JsonNode>> operations = path.getValue().fields();
+            while (operations.hasNext()) {
+                Map.Entry<String, JsonNode> operation = operations.next();
+                response(operation.getValue()).ifPresent(response -> routes.add(
+                        new Route(operation.getKey().toUpperCase(), template(path.getKey()), path.getKey(),
+                                response.status(), response.body())));
+            }
+        }
+        // Literal paths such as /requesters/autocomplete win over /requesters/{id}
+        routes.sort(Comparator.comparingLong(route -> route.path().chars().filter(c -> c == '{').count()));
+    }
+
+    /**
+     * @param swagger Path of the OpenAPI document
+     * @throws IOException if the document cannot be read
+     */
+    static SwaggerExamples load(Path swagger) throws IOException {
+        return new SwaggerExamples(new YAMLMapper().readTree(swagger.toFile()));
+    }
+
+    int size() {
+        return routes.size();
+    }
+
+    /**
+     * @param method HTTP method of the request
+     * @param path   Path of the request, without the query
+     * @return The documented success response of the operation
+     */
+    Optional<Route> find(String method, String path) {
+        return routes.stream()
+                .filter(route -> route.method().equals(method) && route.pattern().matcher(path).matches())
+                .findFirst();
+    }
+
+    private Optional<Example> response(JsonNode operation) {
+        Iterator<Map.Entry<String, JsonNode>> responses = operation.path("responses").fields();
+        while (responses.hasNext()) {
+            Map.Entry<String, JsonNode> response = responses.next();
+            if (!response.getKey().startsWith("2")) {
+                continue;
+            }
+            JsonNode schema = resolve(response.getValue()).path("content").path("application/json").path("schema");
+            JsonNode body = schema.isMissingNode() ? null : example(schema, 0, new HashSet<>());
+            return Optional.of(new Example(Integer.parseInt(response.getKey()), body));
+        }
+        return Optional.empty();
+    }
+
+    private JsonNode example(JsonNode schema, int depth, Set<String> refs) {
+        if (schema.has("$ref")) {
+            String ref = schema.get("$ref").asText();
+            if (!refs.add(ref) || depth > MAX_DEPTH) {
+                return nodes.nullNode();
+            }
+            JsonNode example = example(resolve(schema), depth + 1, refs);
+            refs.remove(ref);
+            return example;
+        }
+        if (schema.has("example")) {
+            return schema.get("example");
+        }
+        if (schema.has("enum") && schema.get("enum").size() > 0) {
+            return schema.get("enum").get(0);
+        }
+        if (schema.has("allOf")) {
+            ObjectNode merged = nodes.objectNode();
+            for (JsonNode part : schema.get("allOf")) {
+                JsonNode example = example(part, depth + 1, refs);
+                if (example.isObject()) {
+                    merged.setAll((ObjectNode) example);
+                }
+            }
+            return merged;
+        }
+        for (String alternatives : List.of("oneOf", "anyOf")) {
+            if (schema.has(alternatives) && schema.get(alternatives).size() > 0) {
+                return example(schema.get(alternatives).get(0), depth + 1, refs);
+            }
+        }
+
+        String type = schema.path("type").asText(schema.has("properties") ? "object" : "string");
+        switch (type) {
+            case "object" -> {
+                ObjectNode object = nodes.objectNode();
+                if (depth > MAX_DEPTH) {
+                    return object;
+                }
+                Iterator<Map.Entry<String, JsonNode>> properties = schema.path("properties").fields();
+                while (properties.hasNext()) {
+                    Map.Entry<String, JsonNode> property = properties.next();
+                    object.set(property.getKey(), example(property.getValue(), depth + 1, refs));
+                }
+                return object;
+            }
+            case "array" -> {
+                ArrayNode array = nodes.arrayNode();
+                if (depth <= MAX_DEPTH && schema.has("items")) {
+                    array.add(example(schema.get("items"), depth + 1, refs));
+                }
+                return array;
+            }
+            case "integer" -> {
+                return nodes.numberNode(1);
+            }
+            case "number" -> {
+                return nodes.numberNode(1.0);
+            }
+            case "boolean" -> {
+                return nodes.booleanNode(true);
+            }
+            default -> {
+                return nodes.textNode(switch (schema.path("format").asText()) {
+                    case "email" -> "user@example.com";
+                    case "date-time" -> "2025-01-01T00:00:00Z";
+                    case "date" -> "2025-01-01";
+                    default -> "string";
+                });
+            }
+        }
+    }
+
+    private JsonNode resolve(JsonNode node) {
+        // Only local references, e.g. '#/components/schemas/Requester'
+        while (node.has("$ref")) {
+            node = document.at(node.get("$ref").asText().substring(1));
+        }
+        return node;
+    }
+
+    private static Pattern template(String path) {
+        StringBuilder regex = new StringBuilder();
+        for (String part : path.split("(?=\\{)|(?<=})")) {
+            regex.append(part.startsWith("{") ? "[^/]+" : Pattern.quote(part));
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    private record Example(int status, JsonNode body) {
+    }
+
+    /**
+     * A documented operation and its example success response.
+     *
+     * @param body The response body, null if the response has no content
+     */
+    record Route(String method, Pattern pattern, String path, int status, JsonNode body) {
+    }
+}
@@ -1,32 +1,88 @@
 package com.freshworks.ex;
 
+import com.freshworks.ex.core.Bootstrap;
+import com.freshworks.ex.core.CostHistory;
+import com.freshworks.ex.core.RunJournal;
+import com.freshworks.ex.core.RunOptions;
 import com.freshworks.ex.core.ScriptRunner;
+import com.freshworks.ex.core.ShardResults;
+import com.freshworks.ex.core.Sharding;
 import com.freshworks.ex.scenarios.TestCase;
 import com.freshworks.ex.scenarios.TestCaseLoader;
 import com.freshworks.ex.utils.HtmlReportGenerator;
+import com.freshworks.ex.utils.clients.EndpointMetrics;
+import com.freshworks.ex.utils.clients.HttpClients;
+import com.freshworks.ex.utils.clients.RateLimiter;
+import com.freshworks.ex.utils.clients.ResponseCache;
+import com.freshworks.ex.utils.clients.SingleFlight;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 
 public class ScriptPilot {
     private static final Logger logger = LoggerFactory.getLogger(ScriptPilot.class);
-    public static ScriptRunner runner = new ScriptRunner();
 
 
     public static void main(String[] args) throws IOException {
         logger.info("Starting ScriptPilot application");
+        if (args.length > 0 && "merge".equals(args[0])) {
+            merge(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        RunOptions options = RunOptions.parse(args);
+        try (RunJournal journal = options.getResume() != null ? RunJournal.resume(options.getResume())
+                : RunJournal.start()) {
+            logger.info("Run id {}, resume an interrupted run with --resume {}", journal.getRunId(),
+                    journal.getRunId());
+            ScriptRunner runner = new ScriptRunner(options, journal);
 
-        TestCaseLoader testCaseLoader = new TestCaseLoader();
-        List<TestCase> testCases = testCaseLoader.fetch();
-        testCases.sort(Comparator.comparing(TestCase::getKey));
+            List<TestCase> testCases = Bootstrap.run(runner, new TestCaseLoader());
+            testCases.sort(Comparator.comparing(TestCase::getKey));
+            if (options.isBootstrapOnly()) {
+                return;
+            }
 
-        runner.execute(testCases);
+            Sharding sharding = options.getSharding();
+            if (sharding.isSharded()) {
+                CostHistory history = sharding.getStrategy() == Sharding.Strategy.COST ? CostHistory.load() : null;
+                testCases = sharding.select(testCases, history);
+                logger.info("Shard {} ({}) runs {} testcases", sharding, sharding.getStrategy(), testCases.size());
+            }
 
-        // Generate HTML report after all test cases are executed
-        HtmlReportGenerator.generateReport(testCases);
+            runner.execute(journal.restore(testCases));
+
+            // Generate HTML report after all test cases are executed, including the ones restored from the journal
+            HtmlReportGenerator.generateReport(testCases);
+            if (sharding.isSharded()) {
+                ShardResults.write(journal, sharding, testCases);
+            }
+            EndpointMetrics.write(journal.getFolder().resolve(sharding.isSharded()
+                    ? String.format("http-latency-%d-of-%d.json", sharding.getIndex(), sharding.getCount())
+                    : "http-latency.json"));
+            logger.info("HTTP connection pool: {}", HttpClients.stats());
+            logger.info("HTTP rate limits: {}", RateLimiter.stats());
+            logger.info("HTTP response cache: {}, {} identical GETs coalesced", ResponseCache.stats(),
+                    SingleFlight.coalesced());
+        }
+    }
+
+    /**
+     * Combines the result files of all shards into one report.
+     *
+     * @param locations Shard result files or folders containing them
+     */
+    private static void merge(String[] locations) throws IOException {
+        if (locations.length == 0) {
+            throw new IllegalArgumentException("Usage: merge <shard result file or folder>...");
+        }
+        List<Path> paths = Arrays.stream(locations).map(Paths::get).toList();
+        HtmlReportGenerator.generateReport(ShardResults.merge(paths));
     }
 
 }
@@ -0,0 +1,106 @@
+package com.freshworks.ex.core;
+
+import com.freshworks.ex.utils.clients.RateLimiter;
+import dev.langchain4j.exception.HttpException;
+import dev.langchain4j.exception.RateLimitException;
+import dev.langchain4j.exception.TimeoutException;
+import dev.langchain4j.model.ModelProvider;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ChatRequestParameters;
+import dev.langchain4j.model.chat.response.ChatResponse;
+
+import java.net.SocketTimeoutException;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * ChatModel decorator that routes every call through an {@link AdaptiveConcurrencyLimiter}.
+ * Listeners stay registered on the wrapped model, so token accounting is unchanged.
+ */
+class AdaptiveChatModel implements ChatModel {
+    // The header name followed by delta seconds or an RFC 1123 date, e.g. "Retry-After: Wed, 21 Oct 2026 07:28:00 GMT"
+    private static final Pattern RETRY_AFTER = Pattern.compile(
+            "(?i:retry[- ]after)\\W{1,10}(\\d+|[A-Z][a-z]{2}, \\d{1,2} [A-Z][a-z]{2} \\d{4} \\d{2}:\\d{2}:\\d{2} GMT)");
+
+    private final ChatModel delegate;
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    AdaptiveChatModel(ChatModel delegate, AdaptiveConcurrencyLimiter limiter) {
+        this.delegate = delegate;
+        this.limiter = limiter;
+    }
+
+    @Override
+    public ChatResponse chat(ChatRequest chatRequest) {
+        try {
+            limiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an LLM slot", e);
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            ChatResponse response = delegate.chat(chatRequest);
+            limiter.onSuccess(System.currentTimeMillis() - start);
+            return response;
+        } catch (RuntimeException e) {
+            if (isOverload(e)) {
+                limiter.onOverload(retryAfterMillis(e));
+            } else {
+                limiter.release();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public ChatRequestParameters defaultRequestParameters() {
+        return delegate.defaultRequestParameters();
+    }
+
+    @Override
+    public ModelProvider provider() {
+        return delegate.provider();
+    }
+
+    @Override
+    public Set<Capability> supportedCapabilities() {
+        return delegate.supportedCapabilities();
+    }
+
+    /**
+     * Classifies on the exception types the model clients map HTTP statuses to, and on the status
+     * of a wrapped {@link HttpException}, never on the message text.
+     */
+    static boolean isOverload(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof RateLimitException || t instanceof TimeoutException || t instanceof SocketTimeoutException) {
+                return true;
+            }
+            if (t instanceof HttpException http && (http.statusCode() == 429 || http.statusCode() == 503)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The model clients do not expose response headers, so Retry-After is taken from the error
+     * message, in seconds or as an HTTP date like the {@link RateLimiter} reads it.
+     */
+    static long retryAfterMillis(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t.getMessage() != null) {
+                Matcher matcher = RETRY_AFTER.matcher(t.getMessage());
+                if (matcher.find()) {
+                    return RateLimiter.retryAfterMillis(matcher.group(1));
+                }
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,193 @@
+package com.freshworks.ex.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * AIMD (additive increase, multiplicative decrease) limit for in-flight LLM requests.
+ * The limit grows by roughly one slot per window of fast successful calls and is halved
+ * when the endpoint answers with 429/503, times out or asks the client to retry later.
+ * Calls slower than the latency target shrink the limit gently so the queue drains
+ * before the endpoint starts rejecting requests.
+ */
+public class AdaptiveConcurrencyLimiter {
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+
+    private static final double BACKOFF_RATIO = 0.5;
+    private static final double SLOW_CALL_RATIO = 0.9;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyTargetMillis;
+
+    private double limit;
+    private int inFlight;
+    private int queued;
+    private long pausedUntil;
+    // Totals since the limiter was created, see stats()
+    private int lowestLimit;
+    private int highestLimit;
+    private int maxQueued;
+    private long waits;
+    private long waitMillis;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int maxLimit, long latencyTargetMillis) {
+        this.minLimit = 1;
+        this.maxLimit = Math.max(maxLimit, 1);
+        this.limit = Math.max(this.minLimit, Math.min(initialLimit, this.maxLimit));
+        this.latencyTargetMillis = latencyTargetMillis;
+        this.lowestLimit = currentLimit();
+        this.highestLimit = currentLimit();
+    }
+
+    /**
+     * Starts at half the maximum, so fast calls can raise the limit up to the maximum before the
+     * endpoint ever pushes back, like the slow start of TCP.
+     *
+     * @param maxLimit            Upper bound of the limit
+     * @param latencyTargetMillis Calls slower than this shrink the limit
+     */
+    public static AdaptiveConcurrencyLimiter slowStart(int maxLimit, long latencyTargetMillis) {
+        return new AdaptiveConcurrencyLimiter(Math.max(maxLimit / 2, 1), maxLimit, latencyTargetMillis);
+    }
+
+    /**
+     * Blocks until a request slot is free and no Retry-After pause is active.
+     *
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    public void acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            queued++;
+            maxQueued = Math.max(maxQueued, queued);
+            long start = System.currentTimeMillis();
+            boolean waiting = inFlight >= currentLimit() || pausedUntil > start;
+            if (waiting) {
+                logger.debug("Waiting for LLM slot - limit: {}, in flight: {}, queued: {}", currentLimit(), inFlight, queued);
+                waits++;
+            }
+            try {
+                while (true) {
+                    long pause = pausedUntil - System.currentTimeMillis();
+                    if (pause > 0) {
+                        available.await(pause, TimeUnit.MILLISECONDS);
+                    } else if (inFlight >= currentLimit()) {
+                        available.await();
+                    } else {
+                        break;
+                    }
+                }
+            } finally {
+                queued--;
+                if (waiting) {
+                    waitMillis += System.currentTimeMillis() - start;
+                }
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases a slot after a successful call and adjusts the limit based on its latency.
+     *
+     * @param latencyMillis Time the call took
+     */
+    public void onSuccess(long latencyMillis) {
+        lock.lock();
+        try {
+            inFlight--;
+            if (latencyMillis > latencyTargetMillis) {
+                updateLimit(limit * SLOW_CALL_RATIO, "slow response " + latencyMillis + "ms");
+            } else {
+                updateLimit(limit + 1.0 / limit, null);
+            }
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases a slot after the endpoint signalled overload and backs off.
+     *
+     * @param retryAfterMillis Pause requested by the endpoint, 0 if none was given
+     */
+    public void onOverload(long retryAfterMillis) {
+        lock.lock();
+        try {
+            inFlight--;
+            if (retryAfterMillis > 0) {
+                pausedUntil = Math.max(pausedUntil, System.currentTimeMillis() + retryAfterMillis);
+            }
+            updateLimit(limit * BACKOFF_RATIO, retryAfterMillis > 0 ? "retry after " + retryAfterMillis + "ms" : "overload");
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases a slot without changing the limit, used for failures unrelated to load.
+     */
+    public void release() {
+        lock.lock();
+        try {
+            inFlight--;
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int currentLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * @return Limit range and queueing since the limiter was created
+     */
+    public Stats stats() {
+        lock.lock();
+        try {
+            return new Stats(currentLimit(), lowestLimit, highestLimit, maxQueued, waits, waitMillis);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void updateLimit(double newLimit, String reason) {
+        int before = currentLimit();
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        lowestLimit = Math.min(lowestLimit, currentLimit());
+        highestLimit = Math.max(highestLimit, currentLimit());
+        if (currentLimit() != before) {
+            logger.info("LLM concurrency limit {} -> {}{} (in flight: {}, queued: {})", before, currentLimit(),
+                    reason != null ? " after " + reason : "", inFlight, queued);
+        }
+    }
+
+    /**
+     * @param limit        Limit at the time of the snapshot
+     * @param lowestLimit  Lowest limit reached
+     * @param highestLimit Highest limit reached
+     * @param maxQueued    Most requests waiting for a slot at the same time
+     * @param waits        Requests that had to wait for a slot or a Retry-After pause
+     * @param waitMillis   Time these requests waited in total
+     */
+    public record Stats(int limit, int lowestLimit, int highestLimit, int maxQueued, long waits, long waitMillis) {
+        @Override
+        public String toString() {
+            return String.format("limit %d (range %d-%d), queue depth max %d, %d requests waited %d ms in total",
+                    limit, lowestLimit, highestLimit, maxQueued, waits, waitMillis);
+        }
+    }
+}
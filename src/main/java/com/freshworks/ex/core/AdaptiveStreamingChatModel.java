@@ -0,0 +1,92 @@
+package com.freshworks.ex.core;
+
+import dev.langchain4j.model.ModelProvider;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ChatRequestParameters;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Streaming counterpart of {@link AdaptiveChatModel}. The slot is held until the stream
+ * completes or fails.
+ */
+class AdaptiveStreamingChatModel implements StreamingChatModel {
+
+    private final StreamingChatModel delegate;
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    AdaptiveStreamingChatModel(StreamingChatModel delegate, AdaptiveConcurrencyLimiter limiter) {
+        this.delegate = delegate;
+        this.limiter = limiter;
+    }
+
+    @Override
+    public void chat(ChatRequest chatRequest, StreamingChatResponseHandler handler) {
+        try {
+            limiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            handler.onError(new IllegalStateException("Interrupted while waiting for an LLM slot", e));
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        AtomicBoolean released = new AtomicBoolean();
+        try {
+            delegate.chat(chatRequest, new StreamingChatResponseHandler() {
+                @Override
+                public void onPartialResponse(String partialResponse) {
+                    handler.onPartialResponse(partialResponse);
+                }
+
+                @Override
+                public void onCompleteResponse(ChatResponse completeResponse) {
+                    if (released.compareAndSet(false, true)) {
+                        limiter.onSuccess(System.currentTimeMillis() - start);
+                    }
+                    handler.onCompleteResponse(completeResponse);
+                }
+
+                @Override
+                public void onError(Throwable error) {
+                    release(released, error);
+                    handler.onError(error);
+                }
+            });
+        } catch (RuntimeException e) {
+            release(released, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public ChatRequestParameters defaultRequestParameters() {
+        return delegate.defaultRequestParameters();
+    }
+
+    @Override
+    public ModelProvider provider() {
+        return delegate.provider();
+    }
+
+    @Override
+    public Set<Capability> supportedCapabilities() {
+        return delegate.supportedCapabilities();
+    }
+
+    private void release(AtomicBoolean released, Throwable error) {
+        if (!released.compareAndSet(false, true)) {
+            return;
+        }
+        if (AdaptiveChatModel.isOverload(error)) {
+            limiter.onOverload(AdaptiveChatModel.retryAfterMillis(error));
+        } else {
+            limiter.release();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.freshworks.ex.core;
+
+import com.freshworks.ex.scenarios.TestCase;
+import com.freshworks.ex.scenarios.TestCaseLoader;
+import com.freshworks.ex.utils.clients.ConnectionWarmer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Startup of a run. Fetching the testcases, preparing the runner (proxies, tool specifications,
+ * tokenizer and assistant classes) and warming the HTTPS connections to Freshservice do not
+ * depend on each other, so they run concurrently and each one is timed.
+ */
+public final class Bootstrap {
+    private static final Logger logger = LoggerFactory.getLogger(Bootstrap.class);
+
+    private Bootstrap() {
+    }
+
+    /**
+     * @param runner The runner to prepare
+     * @param loader Loader of the testcases
+     * @return The fetched testcases
+     * @throws IOException if the testcases cannot be fetched
+     */
+    public static List<TestCase> run(ScriptRunner runner, TestCaseLoader loader) throws IOException {
+        long start = System.currentTimeMillis();
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(3, runnable -> {
+            Thread thread = new Thread(runnable, "scriptpilot-bootstrap-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            CompletableFuture<List<TestCase>> testCases = CompletableFuture.supplyAsync(
+                    () -> StartupTimer.phase("fetch testcases", loader::fetch), executor);
+            CompletableFuture<Void> prepare = CompletableFuture.runAsync(
+                    () -> StartupTimer.phase("prepare runner", () -> {
+                        runner.prepare();
+                        return null;
+                    }), executor);
+            CompletableFuture<Void> warm = CompletableFuture.runAsync(
+                    () -> StartupTimer.phase("warm connections", () -> {
+                        ConnectionWarmer.warm(runner.hosts());
+                        return null;
+                    }), executor);
+
+            CompletableFuture.allOf(testCases, prepare, warm.exceptionally(e -> null)).join();
+            logger.info("Bootstrap took {} ms, {} ms after JVM start", System.currentTimeMillis() - start,
+                    StartupTimer.sinceJvmStart());
+            return testCases.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException nested ? nested.getCause() : e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw e;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.freshworks.ex.core;
+
+/**
+ * Thrown at the next tool call of a testcase that ran out of its {@link TestBudget}.
+ */
+class BudgetExceededException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    BudgetExceededException(String reason) {
+        super(TestBudget.BUDGET_EXCEEDED + ": " + reason);
+    }
+}
@@ -0,0 +1,139 @@
+package com.freshworks.ex.core;
+
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessageSerializer;
+import dev.langchain4j.model.ModelProvider;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import dev.langchain4j.model.chat.listener.ChatModelRequestContext;
+import dev.langchain4j.model.chat.listener.ChatModelResponseContext;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ChatRequestParameters;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.FinishReason;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ChatModel decorator that answers repeated conversations from the {@link LlmResponseCache}.
+ * One instance is created per testcase so hits and misses can be reported per testcase.
+ * The key is a hash of the model name, the system prompt, the tool specifications and the
+ * full message history, which includes every tool result seen so far.
+ */
+class CachingChatModel implements ChatModel {
+
+    private final ChatModel delegate;
+    private final LlmResponseCache cache;
+    private final String modelName;
+    private final String systemPrompt;
+    private final List<ChatModelListener> listeners;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    /**
+     * @param listeners Listeners of the wrapped model, notified of cache hits as if the model had answered
+     */
+    CachingChatModel(ChatModel delegate, LlmResponseCache cache, String modelName, String systemPrompt,
+                     List<ChatModelListener> listeners) {
+        this.delegate = delegate;
+        this.listeners = List.copyOf(listeners);
+        this.cache = cache;
+        this.modelName = modelName;
+        this.systemPrompt = systemPrompt;
+    }
+
+    @Override
+    public ChatResponse chat(ChatRequest chatRequest) {
+        String key = key(chatRequest);
+        Optional<AiMessage> cached = cache.get(key);
+        if (cached.isPresent()) {
+            hits.incrementAndGet();
+            AiMessage message = cached.get();
+            ChatResponse response = ChatResponse.builder()
+                    .aiMessage(message)
+                    .modelName(modelName)
+                    .finishReason(message.hasToolExecutionRequests() ? FinishReason.TOOL_EXECUTION : FinishReason.STOP)
+                    .build();
+            notify(chatRequest, response);
+            return response;
+        }
+
+        misses.incrementAndGet();
+        ChatResponse response = delegate.chat(chatRequest);
+        cache.put(key, response.aiMessage());
+        return response;
+    }
+
+    /**
+     * Turn counting, the budget and the tool call prefetcher rely on the listeners, so a cached turn
+     * is reported like a real one. It carries no token usage since no tokens were spent.
+     */
+    private void notify(ChatRequest chatRequest, ChatResponse response) {
+        Map<Object, Object> attributes = new ConcurrentHashMap<>();
+        ChatModelRequestContext requestContext = new ChatModelRequestContext(chatRequest, provider(), attributes);
+        listeners.forEach(listener -> listener.onRequest(requestContext));
+        ChatModelResponseContext responseContext = new ChatModelResponseContext(response, chatRequest, provider(),
+                attributes);
+        listeners.forEach(listener -> listener.onResponse(responseContext));
+    }
+
+    int getHits() {
+        return hits.get();
+    }
+
+    int getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public ChatRequestParameters defaultRequestParameters() {
+        return delegate.defaultRequestParameters();
+    }
+
+    @Override
+    public ModelProvider provider() {
+        return delegate.provider();
+    }
+
+    @Override
+    public Set<Capability> supportedCapabilities() {
+        return delegate.supportedCapabilities();
+    }
+
+    private String key(ChatRequest chatRequest) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            update(digest, modelName);
+            update(digest, systemPrompt);
+            // Sort by name, the registration order of tools is not guaranteed to be stable between runs
+            List<ToolSpecification> specifications = chatRequest.toolSpecifications() == null ? List.of()
+                    : chatRequest.toolSpecifications().stream()
+                    .sorted(Comparator.comparing(ToolSpecification::name))
+                    .toList();
+            for (ToolSpecification specification : specifications) {
+                update(digest, specification.toString());
+            }
+            update(digest, ChatMessageSerializer.messagesToJson(chatRequest.messages()));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+}
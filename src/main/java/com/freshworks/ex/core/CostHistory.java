@@ -0,0 +1,104 @@
+package com.freshworks.ex.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Historical cost of every testcase key, read from the journals of earlier runs in runs/.
+ * The estimate follows recent runs: every newer result moves it halfway towards the new
+ * duration, so a testcase that started to be replayed quickly becomes cheap.
+ * Keys without history are estimated with the median of the known keys.
+ * Durations are recorded in whole seconds, the token cost separates testcases of equal duration.
+ */
+public class CostHistory {
+    private static final Logger logger = LoggerFactory.getLogger(CostHistory.class);
+    private static final double DEFAULT_ESTIMATE_SECONDS = 60;
+    private static final double RECENT_WEIGHT = 0.5;
+
+    private final Map<String, Double> durations;
+    private final Map<String, Double> tokens;
+    private final double defaultEstimate;
+    private final double defaultTokens;
+
+    CostHistory(Map<String, Double> durations, Map<String, Double> tokens) {
+        this.durations = durations;
+        this.tokens = tokens;
+        this.defaultEstimate = median(durations.values().stream().sorted().toList(), DEFAULT_ESTIMATE_SECONDS);
+        this.defaultTokens = median(tokens.values().stream().sorted().toList(), 0);
+    }
+
+    /**
+     * Reads the journals of all earlier runs.
+     *
+     * @return The cost history, empty if there are no readable journals
+     */
+    public static CostHistory load() {
+        List<RunJournal.Entry> entries = new ArrayList<>();
+        Path runs = Paths.get(RunJournal.RUNS_FOLDER);
+        if (Files.isDirectory(runs)) {
+            try (Stream<Path> folders = Files.list(runs)) {
+                for (Path journal : folders.map(folder -> folder.resolve(RunJournal.JOURNAL_FILE))
+                        .filter(Files::exists).toList()) {
+                    entries.addAll(RunJournal.read(journal));
+                }
+            } catch (IOException e) {
+                logger.warn("Failed to read cost history from {}", runs.toAbsolutePath(), e);
+            }
+        }
+
+        Map<String, Double> durations = new HashMap<>();
+        Map<String, Double> tokens = new HashMap<>();
+        entries.stream()
+                .sorted(Comparator.comparing(entry -> String.valueOf(entry.getFinishedAt())))
+                .forEach(entry -> {
+                    durations.merge(entry.getKey(), (double) entry.getDuration(), CostHistory::follow);
+                    tokens.merge(entry.getKey(), (double) entry.getInputTokens() + entry.getOutputTokens(),
+                            CostHistory::follow);
+                });
+        logger.debug("Loaded cost history of {} testcases from {} journal entries", durations.size(), entries.size());
+        return new CostHistory(durations, tokens);
+    }
+
+    public boolean has(String key) {
+        return durations.containsKey(key);
+    }
+
+    /**
+     * @param key Testcase key
+     * @return Expected duration of the testcase in seconds
+     */
+    public double estimate(String key) {
+        return durations.getOrDefault(key, defaultEstimate);
+    }
+
+    /**
+     * @param key Testcase key
+     * @return Expected input and output tokens of the testcase
+     */
+    public double estimateTokens(String key) {
+        return tokens.getOrDefault(key, defaultTokens);
+    }
+
+    private static double follow(double previous, double latest) {
+        return previous + RECENT_WEIGHT * (latest - previous);
+    }
+
+    private static double median(List<Double> sorted, double defaultValue) {
+        if (sorted.isEmpty()) {
+            return defaultValue;
+        }
+        int middle = sorted.size() / 2;
+        return sorted.size() % 2 == 1 ? sorted.get(middle) : (sorted.get(middle - 1) + sorted.get(middle)) / 2;
+    }
+}
@@ -0,0 +1,54 @@
+package com.freshworks.ex.core;
+
+import com.freshworks.ex.scenarios.TestCase;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Orders the work queue longest-processing-time first, so the slowest testcases start
+ * early instead of stretching the tail of a parallel run.
+ */
+class CostScheduler {
+    private final CostHistory history;
+
+    CostScheduler(CostHistory history) {
+        this.history = history;
+    }
+
+    /**
+     * @param testCases Testcases to execute
+     * @return The testcases ordered by expected duration, then token cost, then key
+     */
+    List<TestCase> order(List<TestCase> testCases) {
+        List<TestCase> ordered = new ArrayList<>(testCases);
+        ordered.sort(Comparator.comparingDouble((TestCase testcase) -> history.estimate(testcase.getKey()))
+                .thenComparingDouble(testcase -> history.estimateTokens(testcase.getKey()))
+                .reversed()
+                .thenComparing(TestCase::getKey));
+        return ordered;
+    }
+
+    /**
+     * Simulates the worker pool: every testcase starts on the first worker that becomes free.
+     *
+     * @param queue   Testcases in the order they are submitted
+     * @param workers Number of workers
+     * @return Expected wall time of the run in seconds
+     */
+    double makespan(List<TestCase> queue, int workers) {
+        PriorityQueue<Double> freeAt = new PriorityQueue<>();
+        for (int i = 0; i < workers; i++) {
+            freeAt.add(0.0);
+        }
+        double makespan = 0;
+        for (TestCase testcase : queue) {
+            double finish = freeAt.poll() + history.estimate(testcase.getKey());
+            makespan = Math.max(makespan, finish);
+            freeAt.add(finish);
+        }
+        return makespan;
+    }
+}
@@ -0,0 +1,65 @@
+package com.freshworks.ex.core;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A "compiled" testcase: the tool calls of a passing LLM run, with the values that flowed
+ * from one tool result into a later call's arguments replaced by references.
+ * A reference is an object of the form {"$from": 0, "path": "/requester/id"} pointing at
+ * a JSON pointer inside the result of an earlier step.
+ */
+@Value
+@Builder
+@Jacksonized
+public class ExecutionPlan {
+    @JsonProperty("plan_key")
+    String planKey;
+
+    @JsonProperty("test_key")
+    String testKey;
+
+    @JsonProperty("recorded_at")
+    String recordedAt;
+
+    @JsonProperty("steps")
+    List<Step> steps;
+
+    @Value
+    @Builder
+    @Jacksonized
+    public static class Step {
+        @JsonProperty("tool")
+        String tool;
+
+        @JsonProperty("arguments")
+        JsonNode arguments;
+
+        /**
+         * Top level fields of the recorded result, a replayed result must contain all of them.
+         * Null when the recorded result was not a JSON object.
+         */
+        @JsonProperty("result_fields")
+        List<String> resultFields;
+
+        /**
+         * Code of the error the recorded call returned, e.g. 409 for a negative testcase creating
+         * a duplicate. Null when the call succeeded, a replayed call must then succeed as well.
+         */
+        @JsonProperty("expected_error_code")
+        Integer expectedErrorCode;
+
+        /**
+         * Values of the recorded result that the testcase steps mention, by JSON pointer. These are
+         * the values the LLM checked, a replayed result must contain the same ones.
+         */
+        @JsonProperty("checks")
+        Map<String, JsonNode> checks;
+    }
+}
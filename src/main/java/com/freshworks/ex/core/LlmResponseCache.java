@@ -0,0 +1,132 @@
+package com.freshworks.ex.core;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessageDeserializer;
+import dev.langchain4j.data.message.ChatMessageSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Disk backed, size bounded LRU cache of LLM responses.
+ * Every entry is a JSON file named after its key. The file modification time is refreshed
+ * on every hit so the LRU order survives restarts.
+ */
+public class LlmResponseCache {
+    private static final Logger logger = LoggerFactory.getLogger(LlmResponseCache.class);
+    private static final String CACHE_FOLDER = "llm-cache";
+
+    public enum Mode {
+        OFF, READ_ONLY, READ_WRITE;
+
+        public static Mode parse(String value) {
+            return Mode.valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+
+    private final Mode mode;
+    private final int maxEntries;
+    private final Path folder;
+    // Access ordered, the eldest entry is the least recently used one
+    private final LinkedHashMap<String, Boolean> index = new LinkedHashMap<>(16, 0.75f, true);
+
+    public LlmResponseCache(Mode mode, int maxEntries) {
+        this.mode = mode;
+        this.maxEntries = maxEntries;
+        this.folder = Paths.get(CACHE_FOLDER);
+        if (mode != Mode.OFF) {
+            loadIndex();
+        }
+    }
+
+    public boolean isEnabled() {
+        return mode != Mode.OFF;
+    }
+
+    synchronized Optional<AiMessage> get(String key) {
+        if (!index.containsKey(key)) {
+            return Optional.empty();
+        }
+        index.get(key);
+        Path path = path(key);
+        try {
+            AiMessage message = (AiMessage) ChatMessageDeserializer.messageFromJson(Files.readString(path));
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+            return Optional.of(message);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Dropping unreadable LLM cache entry {}", path, e);
+            index.remove(key);
+            return Optional.empty();
+        }
+    }
+
+    synchronized void put(String key, AiMessage message) {
+        if (mode != Mode.READ_WRITE) {
+            return;
+        }
+        Path path = path(key);
+        try {
+            Path tmp = Files.createTempFile(folder, key, ".tmp");
+            Files.writeString(tmp, ChatMessageSerializer.messageToJson(message));
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            index.put(key, Boolean.TRUE);
+            evict();
+        } catch (IOException e) {
+            logger.error("Failed to write LLM cache entry {}", path, e);
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Boolean>> eldest = index.entrySet().iterator();
+        while (index.size() > maxEntries && eldest.hasNext()) {
+            String key = eldest.next().getKey();
+            eldest.remove();
+            try {
+                Files.deleteIfExists(path(key));
+                logger.debug("Evicted LLM cache entry {}", key);
+            } catch (IOException e) {
+                logger.warn("Failed to evict LLM cache entry {}", key, e);
+            }
+        }
+    }
+
+    private void loadIndex() {
+        try {
+            Files.createDirectories(folder);
+            try (Stream<Path> files = Files.list(folder)) {
+                files.filter(file -> file.getFileName().toString().endsWith(".json"))
+                        .sorted(Comparator.comparingLong(LlmResponseCache::lastModified))
+                        .forEach(file -> index.put(file.getFileName().toString().replace(".json", ""), Boolean.TRUE));
+            }
+            evict();
+            logger.info("LLM response cache {} with {} entries (max {})", mode, index.size(), maxEntries);
+        } catch (IOException e) {
+            logger.error("Failed to load LLM cache from {}", folder.toAbsolutePath(), e);
+        }
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private Path path(String key) {
+        return folder.resolve(key + ".json");
+    }
+}
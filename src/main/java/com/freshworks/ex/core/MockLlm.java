@@ -0,0 +1,44 @@
+package com.freshworks.ex.core;
+
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * Answers LLM requests from a fixture instead of calling the LLM, see --mock-llm.
+ * The implementation belongs to the load test classes, which are only built with the
+ * "loadtest" Maven profile, and is found with {@link ServiceLoader}.
+ */
+public interface MockLlm {
+    /**
+     * @param modelName Model name reported in the responses
+     * @param listeners Listeners notified of every request and response
+     * @return A chat model answering from the fixture
+     */
+    ChatModel chatModel(String modelName, List<ChatModelListener> listeners);
+
+    /**
+     * Loads fixtures, registered in META-INF/services.
+     */
+    interface Provider {
+        /**
+         * @param fixture Path or classpath resource of the fixture
+         * @return The mock LLM answering from it
+         */
+        MockLlm load(String fixture);
+    }
+
+    /**
+     * @param fixture Path or classpath resource of the fixture
+     * @return The mock LLM answering from it
+     * @throws IllegalStateException if the load test classes are not on the classpath
+     */
+    static MockLlm load(String fixture) {
+        return ServiceLoader.load(Provider.class).findFirst()
+                .orElseThrow(() -> new IllegalStateException(
+                        "--mock-llm needs the load test classes, build with the loadtest profile (-Ploadtest)"))
+                .load(fixture);
+    }
+}
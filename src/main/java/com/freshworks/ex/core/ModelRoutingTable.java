@@ -0,0 +1,59 @@
+package com.freshworks.ex.core;
+
+import com.freshworks.ex.utils.Serializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Persisted tier per testcase key, stored in model-routing.json.
+ * A testcase that only passed after escalating is pinned to the tier it passed on, so later
+ * runs start there instead of failing on the cheaper tiers first.
+ */
+class ModelRoutingTable {
+    private static final Logger logger = LoggerFactory.getLogger(ModelRoutingTable.class);
+    private static final String ROUTING_FILE = "model-routing.json";
+
+    private final Serializer serializer = new Serializer();
+    private final Path path = Paths.get(ROUTING_FILE);
+    private final Map<String, String> pins = new TreeMap<>();
+
+    ModelRoutingTable() {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try {
+            serializer.parse(Files.readString(path)).fields()
+                    .forEachRemaining(pin -> pins.put(pin.getKey(), pin.getValue().asText()));
+            logger.debug("Loaded {} pinned testcases from {}", pins.size(), path);
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable model routing table {}", path, e);
+        }
+    }
+
+    synchronized Optional<String> pinned(String testKey) {
+        return Optional.ofNullable(pins.get(testKey));
+    }
+
+    synchronized void pin(String testKey, String tier) {
+        if (tier.equals(pins.put(testKey, tier))) {
+            return;
+        }
+        logger.info("Pinned testcase {} to model tier {}", testKey, tier);
+        try {
+            Path tmp = Files.createTempFile(path.toAbsolutePath().getParent(), ROUTING_FILE, ".tmp");
+            Files.writeString(tmp, serializer.serialize(pins));
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.error("Failed to save model routing table {}", path, e);
+        }
+    }
+}
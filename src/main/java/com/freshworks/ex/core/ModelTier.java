@@ -0,0 +1,30 @@
+package com.freshworks.ex.core;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+/**
+ * A model a testcase can run on, with its prices used for the cost in the report.
+ */
+@Value
+@Builder
+@Jacksonized
+public class ModelTier {
+    @JsonProperty("name")
+    String name;
+
+    @JsonProperty("model")
+    String model;
+
+    @JsonProperty("input_cost_per_million")
+    double inputCostPerMillion;
+
+    @JsonProperty("output_cost_per_million")
+    double outputCostPerMillion;
+
+    double cost(int inputTokens, int outputTokens) {
+        return (inputTokens * inputCostPerMillion + outputTokens * outputCostPerMillion) / 1_000_000;
+    }
+}
@@ -0,0 +1,73 @@
+package com.freshworks.ex.core;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.freshworks.ex.utils.Serializer;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * The model tiers a testcase escalates through, cheapest first.
+ * They are read from the "model-tiers.json" resource, or from the file in SP_MODEL_TIERS.
+ */
+@Value
+@Builder
+@Jacksonized
+public class ModelTiers {
+    private static final String TIERS_FILE = "/model-tiers.json";
+
+    @JsonProperty("tiers")
+    List<ModelTier> tiers;
+
+    /**
+     * @param tier Name of a tier
+     * @return Position of the tier, 0 if it is unknown
+     */
+    int indexOf(String tier) {
+        for (int i = 0; i < tiers.size(); i++) {
+            if (tiers.get(i).getName().equals(tier)) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * A single tier running every testcase on the given model.
+     */
+    static ModelTiers single(ModelTier tier) {
+        return ModelTiers.builder().tiers(List.of(tier)).build();
+    }
+
+    /**
+     * @throws IllegalStateException if the configuration defines no tiers
+     */
+    static ModelTiers load() {
+        String override = System.getenv("SP_MODEL_TIERS");
+        try {
+            String config;
+            if (override != null && !override.isBlank()) {
+                config = Files.readString(Paths.get(override));
+            } else {
+                try (InputStream inputStream = ModelTiers.class.getResourceAsStream(TIERS_FILE)) {
+                    config = inputStream == null ? "{}" : new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+                }
+            }
+            ModelTiers tiers = new Serializer().deserialize(config, ModelTiers.class);
+            if (tiers.getTiers() == null || tiers.getTiers().isEmpty()) {
+                throw new IllegalStateException("No model tiers configured");
+            }
+            return tiers;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load model tiers", e);
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package com.freshworks.ex.core;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.freshworks.ex.scenarios.TestCase;
+import com.freshworks.ex.utils.Serializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Compiles the tool calls of a passing testcase into an {@link ExecutionPlan} and replays
+ * such plans directly against the proxies.
+ */
+class PlanReplayer {
+    private static final Logger logger = LoggerFactory.getLogger(PlanReplayer.class);
+
+    private static final String REF_FROM = "$from";
+    private static final String REF_PATH = "path";
+    private static final String REF_TEXT = "text";
+
+    // Short strings and small numbers (priorities, flags) match by accident too often to be treated as data flow
+    private static final int MIN_TEXT_REF_LENGTH = 6;
+    private static final long MIN_NUMERIC_REF = 1000;
+    private static final int MAX_RESULT_PREVIEW = 200;
+    // Shorter values, e.g. "Yes" or "IT", appear in the steps without being what the testcase checks
+    private static final int MIN_CHECK_LENGTH = 4;
+    private static final String ERROR = "error";
+    private static final String ERROR_CODE = "code";
+
+    static final String REPLAY_DEVIATED = "REPLAY_DEVIATED";
+
+    private final Toolbox toolbox;
+    private final Serializer serializer = new Serializer();
+
+    PlanReplayer(Toolbox toolbox) {
+        this.toolbox = toolbox;
+    }
+
+    /**
+     * Builds a plan from the recorded calls, linking argument values to earlier results.
+     *
+     * @param planKey  Key of the plan, see {@link PlanStore#key(TestCase)}
+     * @param testcase The testcase that passed
+     * @param calls    Tool calls in execution order
+     * @return The compiled plan
+     */
+    ExecutionPlan compile(String planKey, TestCase testcase, List<ToolCallRecorder.ToolCall> calls) {
+        String mentioned = String.valueOf(testcase.getSteps()).toLowerCase(Locale.ROOT);
+        List<JsonNode> results = new ArrayList<>();
+        List<ExecutionPlan.Step> steps = new ArrayList<>();
+        for (ToolCallRecorder.ToolCall call : calls) {
+            JsonNode arguments = link(parse(call.arguments()), results);
+            JsonNode result = parse(call.result());
+            boolean error = isError(result);
+            Map<String, JsonNode> checks = new LinkedHashMap<>();
+            if (!error) {
+                collectChecks(result, mentioned, "", checks);
+            }
+            steps.add(ExecutionPlan.Step.builder()
+                    .tool(call.name())
+                    .arguments(arguments)
+                    .resultFields(result.isObject() && !error ? fieldNames(result) : null)
+                    .expectedErrorCode(error ? result.path(ERROR_CODE).asInt(0) : null)
+                    .checks(checks.isEmpty() ? null : checks)
+                    .build());
+            results.add(result);
+        }
+        return ExecutionPlan.builder()
+                .planKey(planKey)
+                .testKey(testcase.getKey())
+                .recordedAt(LocalDateTime.now().toString())
+                .steps(steps)
+                .build();
+    }
+
+    /**
+     * Replays a plan. The replay stops at the first call whose response does not look like
+     * the recorded one. As long as only read-only tools ran, the caller can fall back to the
+     * LLM. Once a tool changed tenant data, running the testcase again would repeat those
+     * changes, so the replay is reported as failed instead.
+     *
+     * @param plan The plan to replay
+     * @return The outcome of the replay, empty if it deviated before changing anything
+     */
+    Optional<Replay> replay(ExecutionPlan plan) {
+        for (ExecutionPlan.Step step : plan.getSteps()) {
+            if (!toolbox.has(step.getTool())) {
+                logger.info("Replay of {} skipped: tool {} no longer exists", plan.getTestKey(), step.getTool());
+                return Optional.empty();
+            }
+        }
+
+        List<JsonNode> results = new ArrayList<>();
+        StringBuilder stepsExecuted = new StringBuilder();
+        boolean changed = false;
+        for (int i = 0; i < plan.getSteps().size(); i++) {
+            ExecutionPlan.Step step = plan.getSteps().get(i);
+            String deviation;
+            try {
+                JsonNode arguments = resolve(step.getArguments(), results);
+                if (arguments == null) {
+                    return deviated(plan, i, step, "referenced value missing", changed, stepsExecuted);
+                }
+                changed |= toolbox.mutates(step.getTool());
+                String rawResult = toolbox.execute(step.getTool(), serializer.serialize(arguments));
+                JsonNode result = parse(rawResult);
+                deviation = deviation(step, result);
+                if (deviation != null) {
+                    deviation += ", response " + preview(rawResult);
+                } else {
+                    results.add(result);
+                    stepsExecuted.append(String.format("Step %d: %s - STATUS: PASSED - RESULT: %s%n",
+                            i + 1, step.getTool(), preview(rawResult)));
+                }
+            } catch (RuntimeException | JsonProcessingException e) {
+                deviation = String.valueOf(e.getMessage());
+            }
+            if (deviation != null) {
+                return deviated(plan, i, step, deviation, changed, stepsExecuted);
+            }
+        }
+        return Optional.of(new Replay("TESTCASE_STATUS: PASSED\n"
+                + "EXECUTION_SUMMARY: Replayed recorded plan " + plan.getPlanKey() + " (recorded "
+                + plan.getRecordedAt() + ") without the LLM. The responses were compared with the recorded ones,"
+                + " the testcase assertions were not evaluated again.\n"
+                + "STEPS_EXECUTED:\n" + stepsExecuted
+                + "FINAL_RESULT: All " + plan.getSteps().size() + " recorded tool calls returned the expected responses.",
+                null));
+    }
+
+    private static Optional<Replay> deviated(ExecutionPlan plan, int index, ExecutionPlan.Step step, String reason,
+                                             boolean changed, StringBuilder stepsExecuted) {
+        String deviation = String.format("step %d (%s): %s", index + 1, step.getTool(), reason);
+        if (!changed) {
+            logger.info("Replay of {} deviated at {}", plan.getTestKey(), deviation);
+            return Optional.empty();
+        }
+        logger.warn("Replay of {} deviated at {} after changing tenant data, not retrying with the LLM",
+                plan.getTestKey(), deviation);
+        String failureReason = REPLAY_DEVIATED + " - " + deviation;
+        return Optional.of(new Replay("TESTCASE_STATUS: FAILED\n"
+                + "FAILURE_REASON: " + failureReason + "\n"
+                + "EXECUTION_SUMMARY: Replay of plan " + plan.getPlanKey() + " stopped after earlier steps changed"
+                + " tenant data, so the testcase was not run again through the LLM.\n"
+                + "STEPS_EXECUTED:\n" + stepsExecuted, failureReason));
+    }
+
+    private JsonNode link(JsonNode node, List<JsonNode> results) {
+        if (node.isObject()) {
+            ObjectNode linked = JsonNodeFactory.instance.objectNode();
+            node.fields().forEachRemaining(field -> linked.set(field.getKey(), link(field.getValue(), results)));
+            return linked;
+        }
+        if (node.isArray()) {
+            ArrayNode linked = JsonNodeFactory.instance.arrayNode();
+            node.forEach(element -> linked.add(link(element, results)));
+            return linked;
+        }
+        if (!isLinkable(node)) {
+            return node;
+        }
+        // Prefer the most recent producer of a value, e.g. the latest created requester
+        for (int i = results.size() - 1; i >= 0; i--) {
+            String path = find(results.get(i), node.asText(), "");
+            if (path != null) {
+                ObjectNode ref = JsonNodeFactory.instance.objectNode();
+                ref.put(REF_FROM, i);
+                ref.put(REF_PATH, path);
+                ref.put(REF_TEXT, node.isTextual());
+                return ref;
+            }
+        }
+        return node;
+    }
+
+    private JsonNode resolve(JsonNode node, List<JsonNode> results) {
+        if (node.isObject() && node.has(REF_FROM)) {
+            int from = node.get(REF_FROM).asInt();
+            JsonNode value = from < results.size() ? results.get(from).at(node.path(REF_PATH).asText()) : null;
+            if (value == null || value.isMissingNode() || value.isNull()) {
+                return null;
+            }
+            return node.path(REF_TEXT).asBoolean() ? TextNode.valueOf(value.asText()) : value;
+        }
+        if (node.isObject()) {
+            ObjectNode resolved = JsonNodeFactory.instance.objectNode();
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                JsonNode value = resolve(field.getValue(), results);
+                if (value == null) {
+                    return null;
+                }
+                resolved.set(field.getKey(), value);
+            }
+            return resolved;
+        }
+        if (node.isArray()) {
+            ArrayNode resolved = JsonNodeFactory.instance.arrayNode();
+            for (JsonNode element : node) {
+                JsonNode value = resolve(element, results);
+                if (value == null) {
+                    return null;
+                }
+                resolved.add(value);
+            }
+            return resolved;
+        }
+        return node;
+    }
+
+    private static String find(JsonNode tree, String value, String pointer) {
+        if (tree.isValueNode()) {
+            return tree.asText().equals(value) ? pointer : null;
+        }
+        if (tree.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> fields = tree.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                String path = find(field.getValue(), value, pointer + "/" + escape(field.getKey()));
+                if (path != null) {
+                    return path;
+                }
+            }
+        } else if (tree.isArray()) {
+            for (int i = 0; i < tree.size(); i++) {
+                String path = find(tree.get(i), value, pointer + "/" + i);
+                if (path != null) {
+                    return path;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean isLinkable(JsonNode node) {
+        if (node.isIntegralNumber()) {
+            return Math.abs(node.asLong()) >= MIN_NUMERIC_REF;
+        }
+        return node.isTextual() && node.asText().length() >= MIN_TEXT_REF_LENGTH;
+    }
+
+    /**
+     * @return Why the replayed result differs from the recorded one, null if it matches
+     */
+    private static String deviation(ExecutionPlan.Step step, JsonNode result) {
+        Integer expectedCode = step.getExpectedErrorCode();
+        if (expectedCode != null) {
+            if (!isError(result)) {
+                return "expected error " + expectedCode + " but the call succeeded";
+            }
+            int code = result.path(ERROR_CODE).asInt(0);
+            return expectedCode == 0 || code == expectedCode ? null : "error " + code + ", recorded " + expectedCode;
+        }
+        if (isError(result)) {
+            return "unexpected error";
+        }
+        if (step.getResultFields() != null && !(result.isObject() && step.getResultFields().stream().allMatch(result::has))) {
+            return "recorded fields missing";
+        }
+        if (step.getChecks() != null) {
+            for (Map.Entry<String, JsonNode> check : step.getChecks().entrySet()) {
+                JsonNode value = result.at(check.getKey());
+                if (value.isMissingNode() || !value.asText().equals(check.getValue().asText())) {
+                    return String.format("%s is '%s', recorded '%s'", check.getKey(),
+                            value.isMissingNode() ? "missing" : value.asText(), check.getValue().asText());
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean isError(JsonNode result) {
+        return result.isObject() && result.has(ERROR);
+    }
+
+    /**
+     * Collects the text values of a result that the testcase mentions, e.g. the department name
+     * it asks to verify. Array elements are skipped since their order is not stable.
+     */
+    private static void collectChecks(JsonNode tree, String mentioned, String pointer, Map<String, JsonNode> checks) {
+        if (tree.isTextual()) {
+            String text = tree.asText();
+            if (text.length() >= MIN_CHECK_LENGTH && mentioned.contains(text.toLowerCase(Locale.ROOT))) {
+                checks.put(pointer, tree);
+            }
+        } else if (tree.isObject()) {
+            tree.fields().forEachRemaining(field ->
+                    collectChecks(field.getValue(), mentioned, pointer + "/" + escape(field.getKey()), checks));
+        }
+    }
+
+    private static List<String> fieldNames(JsonNode node) {
+        List<String> names = new ArrayList<>();
+        node.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+
+    private static String escape(String field) {
+        return field.replace("~", "~0").replace("/", "~1");
+    }
+
+    private JsonNode parse(String value) {
+        if (value == null || value.isBlank()) {
+            return TextNode.valueOf(value == null ? "" : value);
+        }
+        try {
+            JsonNode node = serializer.parse(value);
+            return node == null || node.isMissingNode() ? TextNode.valueOf(value) : node;
+        } catch (JsonProcessingException e) {
+            // Tools such as the email generator return plain strings
+            return TextNode.valueOf(value);
+        }
+    }
+
+    private static String preview(String result) {
+        String singleLine = result == null ? "" : result.replaceAll("\\s+", " ");
+        return singleLine.length() > MAX_RESULT_PREVIEW ? singleLine.substring(0, MAX_RESULT_PREVIEW) + "..." : singleLine;
+    }
+
+    /**
+     * @param results   The execution results in the same format the LLM produces
+     * @param deviation Why the replay failed, null if it passed
+     */
+    record Replay(String results, String deviation) {
+    }
+}
@@ -0,0 +1,101 @@
+package com.freshworks.ex.core;
+
+import com.freshworks.ex.scenarios.TestCase;
+import com.freshworks.ex.utils.Serializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Stores recorded execution plans on disk, one JSON file per plan.
+ * Plans are keyed by a hash of the testcase steps and the system prompt, so editing
+ * either one makes the old plan unreachable and the testcase goes back to the LLM.
+ */
+class PlanStore {
+    private static final Logger logger = LoggerFactory.getLogger(PlanStore.class);
+    private static final String PLANS_FOLDER = "plans";
+
+    private final Serializer serializer = new Serializer();
+    private final String systemPrompt;
+
+    PlanStore(String systemPrompt) {
+        this.systemPrompt = systemPrompt;
+        createPlansDirectory();
+    }
+
+    String key(TestCase testcase) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(String.valueOf(testcase.getSteps()).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(systemPrompt.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    Optional<ExecutionPlan> load(TestCase testcase) {
+        Path path = path(key(testcase));
+        if (!Files.exists(path)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(serializer.deserialize(Files.readString(path), ExecutionPlan.class));
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable plan {} for testcase {}", path, testcase.getKey(), e);
+            return Optional.empty();
+        }
+    }
+
+    void save(ExecutionPlan plan) {
+        Path path = path(plan.getPlanKey());
+        try {
+            // Write to a temporary file first so a crash never leaves a half written plan behind
+            Path tmp = Files.createTempFile(path.getParent(), plan.getPlanKey(), ".tmp");
+            Files.writeString(tmp, serializer.serialize(plan));
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.debug("Recorded plan for testcase {} to {}", plan.getTestKey(), path);
+        } catch (IOException e) {
+            logger.error("Failed to record plan for testcase {}", plan.getTestKey(), e);
+        }
+    }
+
+    /**
+     * Removes a plan that no longer matches the tenant, so the testcase is recorded again by the LLM.
+     */
+    void delete(ExecutionPlan plan) {
+        try {
+            Files.deleteIfExists(path(plan.getPlanKey()));
+            logger.info("Dropped the recorded plan of testcase {}", plan.getTestKey());
+        } catch (IOException e) {
+            logger.error("Failed to drop the recorded plan of testcase {}", plan.getTestKey(), e);
+        }
+    }
+
+    private Path path(String planKey) {
+        return Paths.get(PLANS_FOLDER, planKey + ".json");
+    }
+
+    private void createPlansDirectory() {
+        try {
+            Path plansPath = Paths.get(PLANS_FOLDER);
+            if (!Files.exists(plansPath)) {
+                Files.createDirectories(plansPath);
+                logger.info("Created plans directory: {}", plansPath.toAbsolutePath());
+            }
+        } catch (IOException e) {
+            logger.error("Failed to create plans directory", e);
+        }
+    }
+}
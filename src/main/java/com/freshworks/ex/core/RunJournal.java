@@ -0,0 +1,272 @@
+package com.freshworks.ex.core;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.freshworks.ex.scenarios.ModelAttempt;
+import com.freshworks.ex.scenarios.TestCase;
+import com.freshworks.ex.utils.Serializer;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only journal of the testcases finished in a run, stored in runs/&lt;runId&gt;/journal.jsonl.
+ * Every finished testcase is written as one JSON line and synced to disk before the next one
+ * is recorded, so a run that dies halfway can be resumed and reported from the journal.
+ */
+public class RunJournal implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(RunJournal.class);
+    static final String RUNS_FOLDER = "runs";
+    static final String JOURNAL_FILE = "journal.jsonl";
+
+    private static final Serializer serializer = new Serializer();
+    private final String runId;
+    private final Path path;
+    // Latest entry per testcase key, a testcase recorded twice keeps its last result
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    private final FileChannel channel;
+
+    private RunJournal(String runId) throws IOException {
+        this.runId = runId;
+        this.path = Paths.get(RUNS_FOLDER, runId, JOURNAL_FILE);
+        Files.createDirectories(path.getParent());
+        boolean tornLine = false;
+        if (Files.exists(path)) {
+            read(path).forEach(entry -> entries.put(entry.getKey(), entry));
+            tornLine = endsWithTornLine(path);
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        if (tornLine) {
+            // Keep the torn line from swallowing the first entry appended after a resume
+            channel.write(ByteBuffer.wrap(new byte[]{'\n'}));
+        }
+    }
+
+    /**
+     * Starts the journal of a new run, named after the current time. Runs started in the same
+     * second, e.g. the shards of a CI job, get a numbered suffix so they never share a folder.
+     */
+    public static RunJournal start() throws IOException {
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Files.createDirectories(Paths.get(RUNS_FOLDER));
+        for (int attempt = 1; ; attempt++) {
+            String runId = attempt == 1 ? timestamp : timestamp + "-" + attempt;
+            try {
+                // Atomic, only one process can create the folder of a run id
+                Files.createDirectory(Paths.get(RUNS_FOLDER, runId));
+                return new RunJournal(runId);
+            } catch (FileAlreadyExistsException e) {
+                logger.debug("Run id {} is taken, trying the next one", runId);
+            }
+        }
+    }
+
+    /**
+     * Reopens the journal of an earlier run. New entries are appended to the same file.
+     *
+     * @param runId Id of the run to resume
+     * @throws IllegalArgumentException if the run has no journal
+     */
+    public static RunJournal resume(String runId) throws IOException {
+        if (!Files.exists(Paths.get(RUNS_FOLDER, runId, JOURNAL_FILE))) {
+            throw new IllegalArgumentException("No journal found for run " + runId);
+        }
+        return new RunJournal(runId);
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    /**
+     * @return The folder of the run, runs/&lt;runId&gt;, which holds the journal and the other files of the run
+     */
+    public Path getFolder() {
+        return path.getParent();
+    }
+
+    /**
+     * @return The latest entry of every testcase finished in this run
+     */
+    public synchronized List<Entry> entries() {
+        return new ArrayList<>(entries.values());
+    }
+
+    /**
+     * Restores the results of the testcases that already finished in this run.
+     *
+     * @param testCases All testcases of the run
+     * @return The testcases that still have to be executed, in their original order
+     */
+    public synchronized List<TestCase> restore(List<TestCase> testCases) {
+        List<TestCase> pending = new ArrayList<>();
+        for (TestCase testcase : testCases) {
+            Entry entry = entries.get(testcase.getKey());
+            if (entry == null) {
+                pending.add(testcase);
+            } else {
+                entry.applyTo(testcase);
+            }
+        }
+        if (!entries.isEmpty()) {
+            logger.info("Run {}: {} testcases restored from the journal, {} to execute", runId,
+                    testCases.size() - pending.size(), pending.size());
+        }
+        return pending;
+    }
+
+    /**
+     * Appends the result of a finished testcase and syncs it to disk.
+     *
+     * @param testcase The finished testcase
+     * @param logPath  The execution log of the testcase
+     */
+    public synchronized void record(TestCase testcase, Path logPath) {
+        Entry entry = Entry.builder()
+                .key(testcase.getKey())
+                .id(testcase.getId())
+                .status(testcase.isStatus())
+                .duration(testcase.getDuration())
+                .inputTokens(testcase.getInputTokens())
+                .outputTokens(testcase.getOutputTokens())
+                .replayed(testcase.isReplayed())
+                .cacheHits(testcase.getCacheHits())
+                .cacheMisses(testcase.getCacheMisses())
+                .savedInputTokens(testcase.getSavedInputTokens())
+                .failureReason(testcase.getFailureReason())
+                .attempts(List.copyOf(testcase.getAttempts()))
+                .logPath(logPath.toString())
+                .finishedAt(LocalDateTime.now().toString())
+                .build();
+        try {
+            ByteBuffer line = ByteBuffer.wrap((serializer.serialize(entry) + "\n").getBytes(StandardCharsets.UTF_8));
+            while (line.hasRemaining()) {
+                channel.write(line);
+            }
+            channel.force(false);
+            entries.put(entry.getKey(), entry);
+        } catch (IOException e) {
+            logger.error("Failed to journal testcase {} in run {}", testcase.getKey(), runId, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Reads all complete entries of a journal.
+     *
+     * @param journal Path of the journal file
+     * @return The entries in the order they were recorded
+     */
+    static List<Entry> read(Path journal) throws IOException {
+        List<Entry> read = new ArrayList<>();
+        List<String> lines = Files.readAllLines(journal, StandardCharsets.UTF_8);
+        for (int i = 0; i < lines.size(); i++) {
+            if (lines.get(i).isBlank()) {
+                continue;
+            }
+            try {
+                read.add(serializer.deserialize(lines.get(i), Entry.class));
+            } catch (JsonProcessingException e) {
+                // Only the last line can be torn by a crash, the testcase is simply executed again
+                logger.warn("Ignoring unreadable line {} of journal {}", i + 1, journal);
+            }
+        }
+        return read;
+    }
+
+    private static boolean endsWithTornLine(Path journal) throws IOException {
+        try (SeekableByteChannel channel = Files.newByteChannel(journal)) {
+            if (channel.size() == 0) {
+                return false;
+            }
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.position(channel.size() - 1).read(last);
+            return last.get(0) != '\n';
+        }
+    }
+
+    @Value
+    @Builder
+    @Jacksonized
+    public static class Entry {
+        @JsonProperty("key")
+        String key;
+
+        @JsonProperty("id")
+        String id;
+
+        @JsonProperty("status")
+        boolean status;
+
+        @JsonProperty("duration")
+        long duration;
+
+        @JsonProperty("input_tokens")
+        int inputTokens;
+
+        @JsonProperty("output_tokens")
+        int outputTokens;
+
+        @JsonProperty("replayed")
+        boolean replayed;
+
+        @JsonProperty("cache_hits")
+        int cacheHits;
+
+        @JsonProperty("cache_misses")
+        int cacheMisses;
+
+        @JsonProperty("saved_input_tokens")
+        int savedInputTokens;
+
+        @JsonProperty("failure_reason")
+        String failureReason;
+
+        @JsonProperty("attempts")
+        List<ModelAttempt> attempts;
+
+        @JsonProperty("log_path")
+        String logPath;
+
+        @JsonProperty("finished_at")
+        String finishedAt;
+
+        void applyTo(TestCase testcase) {
+            testcase.setStatus(status);
+            testcase.setDuration(duration);
+            testcase.setInputTokens(inputTokens);
+            testcase.setOutputTokens(outputTokens);
+            testcase.setReplayed(replayed);
+            testcase.setCacheHits(cacheHits);
+            testcase.setCacheMisses(cacheMisses);
+            testcase.setSavedInputTokens(savedInputTokens);
+            testcase.setFailureReason(failureReason);
+            testcase.setAttempts(attempts == null ? new ArrayList<>() : new ArrayList<>(attempts));
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.freshworks.ex.core;
+
+import lombok.Getter;
+
+/**
+ * Command line options for a ScriptPilot run.
+ * Options can be passed as program arguments (e.g. "--concurrency 8") and fall back
+ * to environment variables so the same settings can be used from CI.
+ */
+@Getter
+public class RunOptions {
+
+    /**
+     * Number of test cases executed at the same time. 1 keeps the sequential behaviour.
+     */
+    private int concurrency = intEnv("SP_CONCURRENCY", 1);
+
+    /**
+     * Upper bound for in-flight LLM requests, 0 uses the concurrency level.
+     */
+    private int llmMaxInFlight = intEnv("SP_LLM_MAX_INFLIGHT", 0);
+
+    /**
+     * LLM calls slower than this shrink the in-flight limit.
+     */
+    private long llmLatencyTargetMillis = intEnv("SP_LLM_LATENCY_TARGET_MS", 30_000);
+
+    /**
+     * Replay recorded tool-call plans of previously passing testcases instead of calling the LLM.
+     * Off by default, a replay runs the recorded calls against the tenant without the LLM checking the results.
+     */
+    private boolean replay = boolEnv("SP_REPLAY", false);
+
+    /**
+     * Mode of the disk backed LLM response cache: off, read-only or read-write.
+     */
+    private LlmResponseCache.Mode llmCacheMode = LlmResponseCache.Mode.parse(env("SP_LLM_CACHE", "off"));
+
+    /**
+     * Maximum number of cached LLM responses, the least recently used ones are evicted first.
+     */
+    private int llmCacheSize = intEnv("SP_LLM_CACHE_SIZE", 10_000);
+
+    /**
+     * Stream the model output into the live log and detect TESTCASE_STATUS as soon as it is written.
+     */
+    private boolean streaming = boolEnv("SP_STREAM", false);
+
+    /**
+     * Send only the tool groups a testcase mentions instead of all proxies.
+     */
+    private boolean toolRouting = boolEnv("SP_TOOL_ROUTING", true);
+
+    /**
+     * Maximum number of tool calls of a single LLM turn executed at the same time. 1 runs them one by one.
+     */
+    private int toolParallelism = intEnv("SP_TOOL_PARALLELISM", 4);
+
+    /**
+     * Id of an interrupted run to resume, testcases already in its journal are not executed again.
+     */
+    private String resume = env("SP_RESUME", null);
+
+    /**
+     * Shard of the suite executed by this run as "index/count", null runs the whole suite.
+     */
+    private String shard = env("SP_SHARD", null);
+
+    /**
+     * How testcases are assigned to shards: by a hash of the key or by historical cost.
+     */
+    private Sharding.Strategy shardBy = Sharding.Strategy.parse(env("SP_SHARD_BY", "hash"));
+
+    /**
+     * Start the testcases with the longest recorded duration first instead of in key order.
+     */
+    private boolean lptScheduling = boolEnv("SP_LPT", true);
+
+    /**
+     * Maximum LLM turns per testcase, 0 is unlimited.
+     */
+    private int maxTurns = intEnv("SP_MAX_TURNS", 0);
+
+    /**
+     * Maximum input tokens per testcase, 0 is unlimited.
+     */
+    private int maxInputTokens = intEnv("SP_MAX_INPUT_TOKENS", 0);
+
+    /**
+     * Maximum output tokens per testcase, 0 is unlimited.
+     */
+    private int maxOutputTokens = intEnv("SP_MAX_OUTPUT_TOKENS", 0);
+
+    /**
+     * Maximum wall time per testcase in seconds, 0 is unlimited.
+     */
+    private long maxWallTimeSeconds = intEnv("SP_MAX_WALL_TIME", 0);
+
+    /**
+     * Run testcases on the cheap model tier first and escalate failures, see model-tiers.json.
+     */
+    private boolean modelTiering = boolEnv("SP_MODEL_TIERING", false);
+
+    /**
+     * Stop after the bootstrap phases, e.g. for an AppCDS training run.
+     */
+    private boolean bootstrapOnly = boolEnv("SP_BOOTSTRAP_ONLY", false);
+
+    /**
+     * Fixture file or resource answering in place of the LLM, null calls the real model.
+     */
+    private String mockLlm = env("SP_MOCK_LLM", null);
+
+    public static RunOptions defaults() {
+        return new RunOptions();
+    }
+
+    /**
+     * Parses the program arguments into run options.
+     *
+     * @param args The arguments passed to {@code main}
+     * @return The parsed options
+     * @throws IllegalArgumentException if an option is unknown or has no value
+     */
+    public static RunOptions parse(String[] args) {
+        RunOptions options = new RunOptions();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "-c", "--concurrency" -> options.concurrency = Integer.parseInt(value(args, ++i, arg));
+                case "--llm-max-inflight" -> options.llmMaxInFlight = Integer.parseInt(value(args, ++i, arg));
+                case "--llm-latency-target" -> options.llmLatencyTargetMillis = Long.parseLong(value(args, ++i, arg));
+                case "--replay" -> options.replay = true;
+                case "--no-replay" -> options.replay = false;
+                case "--llm-cache" -> options.llmCacheMode = LlmResponseCache.Mode.parse(value(args, ++i, arg));
+                case "--stream" -> options.streaming = true;
+                case "--no-tool-routing" -> options.toolRouting = false;
+                case "--llm-cache-size" -> options.llmCacheSize = Integer.parseInt(value(args, ++i, arg));
+                case "--tool-parallelism" -> options.toolParallelism = Integer.parseInt(value(args, ++i, arg));
+                case "--resume" -> options.resume = value(args, ++i, arg);
+                case "--shard" -> options.shard = value(args, ++i, arg);
+                case "--shard-by" -> options.shardBy = Sharding.Strategy.parse(value(args, ++i, arg));
+                case "--no-lpt" -> options.lptScheduling = false;
+                case "--max-turns" -> options.maxTurns = Integer.parseInt(value(args, ++i, arg));
+                case "--max-input-tokens" -> options.maxInputTokens = Integer.parseInt(value(args, ++i, arg));
+                case "--max-output-tokens" -> options.maxOutputTokens = Integer.parseInt(value(args, ++i, arg));
+                case "--max-wall-time" -> options.maxWallTimeSeconds = Long.parseLong(value(args, ++i, arg));
+                case "--model-tiering" -> options.modelTiering = true;
+                case "--bootstrap-only" -> options.bootstrapOnly = true;
+                case "--mock-llm" -> options.mockLlm = value(args, ++i, arg);
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (options.concurrency < 1) {
+            throw new IllegalArgumentException("Concurrency must be at least 1");
+        }
+        if (options.toolParallelism < 1) {
+            throw new IllegalArgumentException("Tool parallelism must be at least 1");
+        }
+        if (options.mockLlm != null && options.streaming) {
+            throw new IllegalArgumentException("The mock LLM does not support streaming");
+        }
+        if (options.streaming && options.llmCacheMode != LlmResponseCache.Mode.OFF) {
+            throw new IllegalArgumentException("The LLM response cache does not support streaming");
+        }
+        if (options.streaming && env("LLM_STREAMING_BASE_URL", null) == null) {
+            throw new IllegalArgumentException(
+                    "Streaming needs LLM_STREAMING_BASE_URL, the base URL of an OpenAI compatible endpoint");
+        }
+        options.getSharding();
+        return options;
+    }
+
+    public int getLlmMaxInFlight() {
+        return llmMaxInFlight > 0 ? llmMaxInFlight : concurrency;
+    }
+
+    public Sharding getSharding() {
+        return shard == null ? Sharding.none() : Sharding.parse(shard, shardBy);
+    }
+
+    private static String value(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for option: " + option);
+        }
+        return args[index];
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    private static boolean boolEnv(String name, boolean defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : Boolean.parseBoolean(value.trim());
+    }
+
+    private static int intEnv(String name, int defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : Integer.parseInt(value.trim());
+    }
+}
@@ -4,6 +4,7 @@ import com.freshworks.ex.scenarios.TestCase;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.file.Files;
@@ -23,7 +24,7 @@ public class ScriptLogger {
 
     public void log(TestCase testcase, String results, long duration) {
         try {
-            String filename = String.format("%s/%s.log", LOGS_FOLDER, testcase.getKey());
+            String filename = path(testcase).toString();
 
             try (FileWriter writer = new FileWriter(filename)) {
                 log(testcase, results, duration, writer);
@@ -35,6 +36,65 @@ public class ScriptLogger {
         }
     }
 
+    /**
+     * @param testcase The testcase
+     * @return The path of the execution log of the testcase
+     */
+    public Path path(TestCase testcase) {
+        return Paths.get(LOGS_FOLDER, testcase.getKey() + ".log");
+    }
+
+    /**
+     * Opens a live log that receives the model output while it is streamed.
+     * The live log is removed on close, once the final log has been written by {@link #log}.
+     *
+     * @param testcase The testcase being executed
+     * @return The live log of the testcase
+     */
+    public LiveLog live(TestCase testcase) {
+        return new LiveLog(Paths.get(LOGS_FOLDER, testcase.getKey() + ".live.log"));
+    }
+
+    public static class LiveLog implements Closeable {
+        private final Path path;
+        private FileWriter writer;
+
+        private LiveLog(Path path) {
+            this.path = path;
+            try {
+                this.writer = new FileWriter(path.toFile());
+            } catch (IOException e) {
+                logger.warn("Live log disabled, failed to open {}", path, e);
+            }
+        }
+
+        public synchronized void append(String text) {
+            if (writer == null) {
+                return;
+            }
+            try {
+                writer.write(text);
+                if (text.indexOf('\n') >= 0) {
+                    writer.flush();
+                }
+            } catch (IOException e) {
+                logger.warn("Failed to write live log {}", path, e);
+            }
+        }
+
+        @Override
+        public synchronized void close() {
+            try {
+                if (writer != null) {
+                    writer.close();
+                }
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                logger.warn("Failed to close live log {}", path, e);
+            }
+        }
+    }
+
     private static void log(TestCase testcase, String results, long duration, FileWriter writer) throws IOException {
         String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
         String steps = sanitizeHtml(testcase.getSteps());
@@ -1,19 +1,41 @@
 package com.freshworks.ex.core;
 
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import com.freshworks.ex.proxy.*;
 import com.freshworks.ex.proxy.user.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.freshworks.ex.scenarios.ModelAttempt;
 import com.freshworks.ex.scenarios.TestCase;
 import com.freshworks.ex.utils.SystemPromptLoader;
+import com.freshworks.ex.utils.clients.BaseUrls;
 
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.data.message.ToolExecutionResultMessage;
 import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import dev.langchain4j.model.chat.response.ChatResponse;
 import dev.langchain4j.model.cloudverse.CloudVerseModel;
+import dev.langchain4j.model.openai.OpenAiStreamingChatModel;
 import dev.langchain4j.service.AiServices;
+import dev.langchain4j.service.tool.ToolExecutor;
 
 public class ScriptRunner {
     private static final String domain = System.getenv("FS_DOMAIN");
@@ -28,72 +50,426 @@ public class ScriptRunner {
 
     private static final Logger logger = LoggerFactory.getLogger(ScriptRunner.class);
     private static final String key = System.getenv("CLOUDVERSE_TOKEN");
-
-    // Create the chat model
-    private static final TokenUsageListener listener = new TokenUsageListener();
-    private static final ChatModel chatModel = CloudVerseModel.builder()
-            .baseUrl("https://cloudverse.freshworkscorp.com/api/v2")
-            .modelName("Azure-GPT-4.1")
-            .apiKey(key)
-            .listeners(List.of(listener))
+    private static final String MODEL_NAME = "Azure-GPT-4.1";
+    // Used for every testcase unless model tiering is enabled, priced at the GPT-4.1 list price
+    private static final ModelTier DEFAULT_TIER = ModelTier.builder()
+            .name("default")
+            .model(MODEL_NAME)
+            .inputCostPerMillion(2.0)
+            .outputCostPerMillion(8.0)
             .build();
+    private static final String CLOUDVERSE_BASE_URL = "https://cloudverse.freshworkscorp.com/api/v2";
+    // The streaming model speaks the OpenAI protocol, RunOptions rejects --stream when no such endpoint is set
+    private static final String STREAMING_BASE_URL = System.getenv("LLM_STREAMING_BASE_URL");
+    private static final Pattern STATUS_PATTERN = Pattern.compile("TESTCASE_STATUS:\\s*(PASSED|FAILED)");
+    // Enough characters to find a status line that was split across streamed tokens
+    private static final int STATUS_LOOKBEHIND = 64;
+
     private final ScriptLogger scriptLogger;
+    private final RunOptions options;
+    private final AdaptiveConcurrencyLimiter llmLimiter;
+    private final PlanStore planStore;
+    private final LlmResponseCache llmCache;
+    private final RunJournal journal;
+    private final ModelTiers modelTiers;
+    private final ModelRoutingTable modelRouting;
+    private final MockLlm mockLlm;
+    private Toolbox toolbox;
+    private PlanReplayer planReplayer;
+    private ToolRouter toolRouter;
 
     public ScriptRunner() {
+        this(RunOptions.defaults());
+    }
+
+    public ScriptRunner(RunOptions options) {
+        this(options, null);
+    }
+
+    /**
+     * @param options Options of the run
+     * @param journal Journal receiving every finished testcase, null to keep results in memory only
+     */
+    public ScriptRunner(RunOptions options, RunJournal journal) {
         this.scriptLogger = new ScriptLogger();
+        this.options = options;
+        this.llmLimiter = AdaptiveConcurrencyLimiter.slowStart(options.getLlmMaxInFlight(),
+                options.getLlmLatencyTargetMillis());
+        this.planStore = new PlanStore(SYSTEM_PROMPT);
+        this.llmCache = new LlmResponseCache(options.getLlmCacheMode(), options.getLlmCacheSize());
+        this.journal = journal;
+        this.modelTiers = options.isModelTiering() ? ModelTiers.load() : ModelTiers.single(DEFAULT_TIER);
+        this.modelRouting = new ModelRoutingTable();
+        this.mockLlm = options.getMockLlm() == null ? null : MockLlm.load(options.getMockLlm());
+    }
+
+    /**
+     * Builds the proxies, resolves the tool specifications and loads the assistant classes.
+     * Called by {@link Bootstrap} while the testcases are fetched, otherwise by the first {@link #execute(List)}.
+     */
+    public synchronized void prepare() {
+        if (toolbox != null) {
+            return;
+        }
+        toolbox = new Toolbox(initTools());
+        planReplayer = new PlanReplayer(toolbox);
+        toolRouter = new ToolRouter(toolbox.groups());
+        // Building an assistant loads and links the AiServices proxy classes before the first testcase needs them
+        try (TestBudget budget = new TestBudget("bootstrap", options);
+             ToolCallPrefetcher prefetcher = new ToolCallPrefetcher(Map.of(), 1, budget)) {
+            init(chatModel(new TokenUsageListener(), prefetcher, modelTiers.getTiers().get(0)), new ToolCallRecorder(),
+                    prefetcher, budget, Set.of());
+        } catch (RuntimeException e) {
+            logger.debug("Skipped assistant warm up: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * The LLM host is left out: the model clients use their own HTTP clients, so a connection
+     * warmed in the shared pool would never be reused by them.
+     *
+     * @return Base URLs of the hosts the REST clients talk to, used to warm the connections
+     */
+    public List<String> hosts() {
+        List<String> hosts = new ArrayList<>();
+        if (domain != null || BaseUrls.isFreshserviceOverridden()) {
+            hosts.add(BaseUrls.freshservice(domain));
+        }
+        return hosts;
     }
 
     public void execute(List<TestCase> testCases) {
-        Assistant assistant = init();
-        for (TestCase testcase : testCases) {
-            listener.reset();
-            logger.info("\u001B[34mRunning testcase {}\u001B[0m", testcase.getKey());
-            execute(testcase, assistant);
+        prepare();
+        int concurrency = Math.min(options.getConcurrency(), Math.max(testCases.size(), 1));
+        CostScheduler scheduler = new CostScheduler(CostHistory.load());
+        List<TestCase> queue = options.isLptScheduling() ? scheduler.order(testCases) : testCases;
+        double predicted = scheduler.makespan(queue, concurrency);
+
+        long start = System.currentTimeMillis();
+        dispatch(queue, concurrency);
+        if (!queue.isEmpty()) {
+            logger.info("Makespan predicted {} s ({} order), actual {} s", Math.round(predicted),
+                    options.isLptScheduling() ? "longest first" : "key", (System.currentTimeMillis() - start) / 1000);
+            logger.info("LLM concurrency: {}", llmLimiter.stats());
+            logger.info("Tool results: {}", AbstractProxy.projectionStats());
         }
     }
 
-    private void execute(TestCase testcase, Assistant assistant) {
+    private void dispatch(List<TestCase> queue, int concurrency) {
+        if (concurrency <= 1) {
+            queue.forEach(this::execute);
+            return;
+        }
+
+        logger.info("Running {} testcases with concurrency {}", queue.size(), concurrency);
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency, workerThreadFactory());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            // The pool takes work in submission order, so the queue order is the start order
+            for (TestCase testcase : queue) {
+                futures.add(executor.submit(() -> execute(testcase)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("Interrupted while waiting for testcases to finish");
+        } catch (ExecutionException e) {
+            logger.error("Testcase worker failed unexpectedly", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void execute(TestCase testcase) {
+        // Every testcase gets its own listener and assistant so token counts never mix between workers
+        TestBudget budget = new TestBudget(testcase.getKey(), options);
+        TokenUsageListener listener = new TokenUsageListener(budget);
+        ToolCallRecorder recorder = new ToolCallRecorder();
+        logger.info("\u001B[34mRunning testcase {}\u001B[0m", testcase.getKey());
+
         long start = System.currentTimeMillis();
-        String results = assistant.execute(testcase.getSteps());
+        Optional<PlanReplayer.Replay> replayed;
+        String results;
+        try (budget) {
+            replayed = budget.scope().call(() -> replay(testcase));
+            testcase.setReplayed(replayed.isPresent());
+            replayed.map(PlanReplayer.Replay::deviation).ifPresent(testcase::setFailureReason);
+            results = replayed.isPresent() ? replayed.get().results() : escalate(testcase, listener, recorder, budget);
+        }
+        if (budget.reason() != null) {
+            testcase.setFailureReason(TestBudget.BUDGET_EXCEEDED + " - " + budget.reason());
+            results = "TESTCASE_STATUS: FAILED\nFAILURE_REASON: " + testcase.getFailureReason()
+                    + "\nEXECUTION_SUMMARY: Execution cancelled after the testcase exceeded its budget";
+        }
         long end = System.currentTimeMillis();
 
         // Log execution results to file
         scriptLogger.log(testcase, results, (end - start) / 1000);
 
-        log(testcase, results.contains("TESTCASE_STATUS: PASSED"), end - start);
+        boolean status = results.contains("TESTCASE_STATUS: PASSED");
+        // Plans are only recorded for runs that replay them, so plans/ does not fill up otherwise
+        if (options.isReplay() && status && replayed.isEmpty() && !recorder.calls().isEmpty()) {
+            planStore.save(planReplayer.compile(planStore.key(testcase), testcase, recorder.calls()));
+        }
+        log(testcase, listener, status, end - start);
+        if (journal != null) {
+            journal.record(testcase, scriptLogger.path(testcase));
+        }
+    }
+
+    private Optional<PlanReplayer.Replay> replay(TestCase testcase) {
+        if (!options.isReplay()) {
+            return Optional.empty();
+        }
+        return planStore.load(testcase).flatMap(plan -> {
+            logger.info("Replaying recorded plan for testcase {}", testcase.getKey());
+            Optional<PlanReplayer.Replay> replay = planReplayer.replay(plan);
+            if (replay.isEmpty()) {
+                logger.info("Falling back to the LLM for testcase {}", testcase.getKey());
+            } else if (replay.get().deviation() != null) {
+                planStore.delete(plan);
+            }
+            return replay;
+        });
+    }
+
+    /**
+     * Runs the testcase on the cheapest model tier first, or on the tier it is pinned to, and
+     * moves to the next tier when it fails or reports no status. A testcase that only passes on
+     * a higher tier is pinned to that tier.
+     */
+    private String escalate(TestCase testcase, TokenUsageListener listener, ToolCallRecorder recorder,
+                            TestBudget budget) {
+        List<ModelTier> tiers = modelTiers.getTiers();
+        int first = modelRouting.pinned(testcase.getKey()).map(modelTiers::indexOf).orElse(0);
+        String results = "";
+        for (int i = first; i < tiers.size(); i++) {
+            ModelTier tier = tiers.get(i);
+            int inputTokens = listener.getTotalInputTokens();
+            int outputTokens = listener.getTotalOutputTokens();
+            long start = System.currentTimeMillis();
+            recorder.clear();
+            results = route(testcase, listener, recorder, budget, tier);
+
+            boolean passed = results.contains("TESTCASE_STATUS: PASSED");
+            inputTokens = listener.getTotalInputTokens() - inputTokens;
+            outputTokens = listener.getTotalOutputTokens() - outputTokens;
+            testcase.getAttempts().add(new ModelAttempt(tier.getName(), tier.getModel(), passed,
+                    System.currentTimeMillis() - start, inputTokens, outputTokens, tier.cost(inputTokens, outputTokens)));
+            if (passed) {
+                if (i > 0) {
+                    modelRouting.pin(testcase.getKey(), tier.getName());
+                }
+                return results;
+            }
+            if (budget.reason() != null || i == tiers.size() - 1) {
+                return results;
+            }
+            logger.info("Testcase {} {} on model tier {}, escalating to {}", testcase.getKey(),
+                    results.contains("TESTCASE_STATUS:") ? "failed" : "reported no status", tier.getName(),
+                    tiers.get(i + 1).getName());
+        }
+        return results;
+    }
+
+    /**
+     * Runs the testcase with only the tool groups its steps need. If the model asks for a tool
+     * that was left out, the call is still executed, see {@link #missingTool}.
+     */
+    private String route(TestCase testcase, TokenUsageListener listener, ToolCallRecorder recorder,
+                         TestBudget budget, ModelTier tier) {
+        Set<String> allGroups = toolbox.groups();
+        Set<String> groups = options.isToolRouting() ? toolRouter.route(testcase.getSteps()) : allGroups;
+        if (groups.containsAll(allGroups)) {
+            return converse(testcase, listener, recorder, budget, tier, allGroups);
+        }
+
+        logger.debug("Testcase {} routed to tool groups {}", testcase.getKey(), groups);
+        // The listener counts the requests of earlier tiers too, only the ones of this routed run saved tokens
+        int requests = listener.getTotalRequests();
+        String results = converse(testcase, listener, recorder, budget, tier, groups);
+        testcase.setSavedInputTokens(testcase.getSavedInputTokens()
+                + toolbox.excludedSpecificationTokens(groups) * (listener.getTotalRequests() - requests));
+        return results;
+    }
+
+    private String converse(TestCase testcase, TokenUsageListener listener, ToolCallRecorder recorder,
+                            TestBudget budget, ModelTier tier, Set<String> groups) {
+        // Started by the model listener, so calls answered from the LLM cache still run one by one
+        try (ToolCallPrefetcher prefetcher = new ToolCallPrefetcher(toolbox.executors(groups),
+                options.getToolParallelism(), budget)) {
+            if (options.isStreaming()) {
+                return stream(testcase, initStreaming(listener, prefetcher, recorder, budget, tier, groups));
+            }
+            ChatModel chatModel = chatModel(listener, prefetcher, tier);
+            if (!llmCache.isEnabled()) {
+                return run(testcase, init(chatModel, recorder, prefetcher, budget, groups));
+            }
+            CachingChatModel cachingModel = new CachingChatModel(chatModel, llmCache, tier.getModel(), SYSTEM_PROMPT,
+                    listeners(listener, prefetcher));
+            try {
+                return run(testcase, init(cachingModel, recorder, prefetcher, budget, groups));
+            } finally {
+                testcase.setCacheHits(testcase.getCacheHits() + cachingModel.getHits());
+                testcase.setCacheMisses(testcase.getCacheMisses() + cachingModel.getMisses());
+            }
+        }
     }
 
-    private void log(TestCase tc, boolean status, long elapsed) {
+    private String run(TestCase testcase, Assistant assistant) {
+        try {
+            return assistant.execute(testcase.getSteps());
+        } catch (RuntimeException e) {
+            logger.error("Testcase {} aborted", testcase.getKey(), e);
+            return "TESTCASE_STATUS: FAILED\nEXECUTION_SUMMARY: Execution aborted - " + e.getMessage();
+        }
+    }
+
+    /**
+     * Streams the model output into the live log and reports TESTCASE_STATUS as soon as it
+     * appears, before the model has finished writing its summary.
+     */
+    private String stream(TestCase testcase, StreamingAssistant assistant) {
+        CompletableFuture<ChatResponse> completion = new CompletableFuture<>();
+        StringBuilder output = new StringBuilder();
+        AtomicBoolean statusSeen = new AtomicBoolean();
+        long start = System.currentTimeMillis();
+
+        try (ScriptLogger.LiveLog liveLog = scriptLogger.live(testcase)) {
+            assistant.execute(testcase.getSteps())
+                    .onPartialResponse(token -> {
+                        liveLog.append(token);
+                        synchronized (output) {
+                            int from = Math.max(0, output.length() - STATUS_LOOKBEHIND);
+                            output.append(token);
+                            if (statusSeen.get()) {
+                                return;
+                            }
+                            Matcher matcher = STATUS_PATTERN.matcher(output).region(from, output.length());
+                            if (matcher.find()) {
+                                statusSeen.set(true);
+                                testcase.setStatus("PASSED".equals(matcher.group(1)));
+                                logger.info("Testcase {} reported TESTCASE_STATUS: {} after {} ms, still streaming",
+                                        testcase.getKey(), matcher.group(1), System.currentTimeMillis() - start);
+                            }
+                        }
+                    })
+                    .onCompleteResponse(completion::complete)
+                    .onError(completion::completeExceptionally)
+                    .start();
+
+            ChatResponse response = completion.get();
+            String text = response.aiMessage().text();
+            return text != null ? text : output.toString();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "TESTCASE_STATUS: FAILED\nEXECUTION_SUMMARY: Execution interrupted";
+        } catch (ExecutionException | RuntimeException e) {
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            logger.error("Testcase {} aborted", testcase.getKey(), cause);
+            return "TESTCASE_STATUS: FAILED\nEXECUTION_SUMMARY: Execution aborted - " + cause.getMessage();
+        }
+    }
+
+    private void log(TestCase tc, TokenUsageListener listener, boolean status, long elapsed) {
         tc.setStatus(status);
         tc.setDuration(elapsed / 1000);
         tc.setInputTokens(listener.getTotalInputTokens());
-        tc.setOutputTokens(listener.getTotalInputTokens());
+        tc.setOutputTokens(listener.getTotalOutputTokens());
 
         if (status) {
-            System.out.println(GREEN + "Execution Status: ✅" + RESET);
+            System.out.println(GREEN + "Execution Status [" + tc.getKey() + "]: ✅" + RESET);
         } else {
-            System.out.println(RED + "Execution Status: ❌" + RESET);
+            System.out.println(RED + "Execution Status [" + tc.getKey() + "]: ❌" + RESET);
         }
     }
 
-    private Assistant init() {
-        // Initialize the proxies
+    private Object[] initTools() {
+        // Initialize the proxies, they are stateless and shared by all testcases
         DepartmentProxy departmentProxy = new DepartmentProxy(domain);
         RequesterProxy requesterProxy = new RequesterProxy(domain);
         AgentProxy agentProxy = new AgentProxy(domain);
         EmailTool emailProxy = new EmailTool();
         WorkspacesProxy workspacesProxy = new WorkspacesProxy(domain, email, password);
         TicketProxy ticketProxy = new TicketProxy(domain);
+        return new Object[]{departmentProxy, requesterProxy, agentProxy, emailProxy, workspacesProxy, ticketProxy};
+    }
+
+    private static List<ChatModelListener> listeners(TokenUsageListener listener, ToolCallPrefetcher prefetcher) {
+        return List.of(listener, prefetcher, StartupTimer.INSTANCE);
+    }
 
+    private ChatModel chatModel(TokenUsageListener listener, ToolCallPrefetcher prefetcher, ModelTier tier) {
+        // Create the chat model
+        List<ChatModelListener> listeners = listeners(listener, prefetcher);
+        ChatModel model = mockLlm != null
+                ? mockLlm.chatModel(tier.getModel(), listeners)
+                : CloudVerseModel.builder()
+                        .baseUrl(CLOUDVERSE_BASE_URL)
+                        .modelName(tier.getModel())
+                        .apiKey(key)
+                        .listeners(listeners)
+                        .build();
+        ChatModel chatModel = new AdaptiveChatModel(model, llmLimiter);
         logger.debug("Initialized chat model");
+        return chatModel;
+    }
+
+    private StreamingAssistant initStreaming(TokenUsageListener listener, ToolCallPrefetcher prefetcher,
+                                             ToolCallRecorder recorder, TestBudget budget, ModelTier tier,
+                                             Set<String> groups) {
+        StreamingChatModel streamingModel = new AdaptiveStreamingChatModel(OpenAiStreamingChatModel.builder()
+                .baseUrl(STREAMING_BASE_URL)
+                .modelName(tier.getModel())
+                .apiKey(key)
+                .listeners(listeners(listener, prefetcher))
+                .build(), llmLimiter);
+        logger.debug("Initialized streaming chat model");
 
+        return AiServices.builder(StreamingAssistant.class)
+                .streamingChatModel(streamingModel)
+                .tools(toolbox.tools(recorder, prefetcher, budget, groups))
+                .hallucinatedToolNameStrategy(request -> missingTool(request, recorder, prefetcher, budget))
+                .systemMessageProvider(chatMemoryId -> SYSTEM_PROMPT)
+                .build();
+    }
+
+    private Assistant init(ChatModel chatModel, ToolCallRecorder recorder, ToolCallPrefetcher prefetcher,
+                           TestBudget budget, Set<String> groups) {
         // Create the assistant with function calling capability and chat memory
         Assistant assistant = AiServices.builder(Assistant.class)
                 .chatModel(chatModel)
-                .tools(departmentProxy, requesterProxy, agentProxy, emailProxy, workspacesProxy, ticketProxy)
+                .tools(toolbox.tools(recorder, prefetcher, budget, groups))
+                .hallucinatedToolNameStrategy(request -> missingTool(request, recorder, prefetcher, budget))
                 .systemMessageProvider(chatMemoryId -> SYSTEM_PROMPT)
                 .build();
-        logger.info("Assistant service initialized successfully");
+        logger.debug("Assistant service initialized successfully");
         return assistant;
     }
+
+    /**
+     * Answers a call of a tool that was not sent to the model. A tool that exists but was not
+     * routed to the testcase is executed in place, so the conversation goes on and the calls
+     * made so far are not repeated.
+     */
+    private ToolExecutionResultMessage missingTool(ToolExecutionRequest request, ToolCallRecorder recorder,
+                                                   ToolCallPrefetcher prefetcher, TestBudget budget) {
+        ToolExecutor executor = toolbox.executor(request.name(), recorder, prefetcher, budget);
+        if (executor != null) {
+            logger.info("Tool '{}' was not routed to the testcase, executing it anyway", request.name());
+            return ToolExecutionResultMessage.from(request, executor.execute(request, "default"));
+        }
+        return ToolExecutionResultMessage.from(request, "Error: there is no tool called '" + request.name() + "'");
+    }
+
+    private static ThreadFactory workerThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "scriptpilot-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
 }
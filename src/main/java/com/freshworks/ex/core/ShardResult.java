@@ -0,0 +1,53 @@
+package com.freshworks.ex.core;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import java.util.List;
+
+/**
+ * Machine readable result of one shard, written to runs/&lt;runId&gt;/shard-&lt;index&gt;-of-&lt;count&gt;.json.
+ * It lists every testcase assigned to the shard, so a testcase that never finished still
+ * shows up as failed when the shards are merged.
+ */
+@Value
+@Builder
+@Jacksonized
+public class ShardResult {
+    @JsonProperty("run_id")
+    String runId;
+
+    @JsonProperty("shard_index")
+    int shardIndex;
+
+    @JsonProperty("shard_count")
+    int shardCount;
+
+    @JsonProperty("strategy")
+    String strategy;
+
+    @JsonProperty("written_at")
+    String writtenAt;
+
+    @JsonProperty("test_cases")
+    List<Assignment> testCases;
+
+    @JsonProperty("results")
+    List<RunJournal.Entry> results;
+
+    @Value
+    @Builder
+    @Jacksonized
+    public static class Assignment {
+        @JsonProperty("id")
+        String id;
+
+        @JsonProperty("key")
+        String key;
+
+        @JsonProperty("steps")
+        String steps;
+    }
+}
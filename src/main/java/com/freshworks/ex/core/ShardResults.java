@@ -0,0 +1,150 @@
+package com.freshworks.ex.core;
+
+import com.freshworks.ex.scenarios.TestCase;
+import com.freshworks.ex.utils.Serializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+/**
+ * Writes the result file of a shard and merges the result files of all shards into one suite.
+ */
+public final class ShardResults {
+    private static final Logger logger = LoggerFactory.getLogger(ShardResults.class);
+    private static final Serializer serializer = new Serializer();
+
+    private ShardResults() {
+    }
+
+    /**
+     * Writes the result file of a finished shard next to its journal.
+     *
+     * @param journal   Journal of the run
+     * @param sharding  The shard that was executed
+     * @param testCases The testcases assigned to the shard
+     * @return Path of the result file
+     */
+    public static Path write(RunJournal journal, Sharding sharding, List<TestCase> testCases) throws IOException {
+        ShardResult result = ShardResult.builder()
+                .runId(journal.getRunId())
+                .shardIndex(sharding.getIndex())
+                .shardCount(sharding.getCount())
+                .strategy(sharding.getStrategy().name())
+                .writtenAt(LocalDateTime.now().toString())
+                .testCases(testCases.stream()
+                        .map(testcase -> ShardResult.Assignment.builder()
+                                .id(testcase.getId())
+                                .key(testcase.getKey())
+                                .steps(testcase.getSteps())
+                                .build())
+                        .toList())
+                .results(journal.entries())
+                .build();
+
+        Path path = Paths.get(RunJournal.RUNS_FOLDER, journal.getRunId(),
+                String.format("shard-%d-of-%d.json", sharding.getIndex(), sharding.getCount()));
+        Path tmp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+        Files.writeString(tmp, serializer.serialize(result));
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logger.info("Shard {} results written to {}", sharding, path);
+        return path;
+    }
+
+    /**
+     * Merges shard result files into a single suite, ordered by testcase key.
+     * Testcases without a result are reported as failed, testcases found in several shards
+     * keep their latest result.
+     *
+     * @param locations Shard result files, or folders that are searched for them
+     * @return The merged testcases
+     */
+    public static List<TestCase> merge(List<Path> locations) throws IOException {
+        List<ShardResult> shards = new ArrayList<>();
+        for (Path file : files(locations)) {
+            shards.add(serializer.deserialize(Files.readString(file), ShardResult.class));
+        }
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("No shard result files found in " + locations);
+        }
+        checkCoverage(shards);
+
+        Map<String, TestCase> testCases = new TreeMap<>();
+        Map<String, RunJournal.Entry> results = new TreeMap<>();
+        for (ShardResult shard : shards) {
+            for (ShardResult.Assignment assignment : shard.getTestCases()) {
+                testCases.putIfAbsent(assignment.getKey(),
+                        new TestCase(assignment.getId(), assignment.getKey(), assignment.getSteps()));
+            }
+            for (RunJournal.Entry entry : shard.getResults()) {
+                RunJournal.Entry previous = results.put(entry.getKey(), entry);
+                if (previous != null) {
+                    logger.warn("Testcase {} was executed by more than one shard, keeping the latest result",
+                            entry.getKey());
+                    if (String.valueOf(previous.getFinishedAt()).compareTo(String.valueOf(entry.getFinishedAt())) > 0) {
+                        results.put(entry.getKey(), previous);
+                    }
+                }
+            }
+        }
+
+        for (TestCase testcase : testCases.values()) {
+            RunJournal.Entry entry = results.get(testcase.getKey());
+            if (entry == null) {
+                logger.warn("Testcase {} has no result in any shard, reporting it as failed", testcase.getKey());
+            } else {
+                entry.applyTo(testcase);
+            }
+        }
+        logger.info("Merged {} testcases from {} shard result files", testCases.size(), shards.size());
+        return new ArrayList<>(testCases.values());
+    }
+
+    private static void checkCoverage(List<ShardResult> shards) {
+        Set<Integer> counts = new TreeSet<>();
+        Set<Integer> indexes = new TreeSet<>();
+        shards.forEach(shard -> {
+            counts.add(shard.getShardCount());
+            indexes.add(shard.getShardIndex());
+        });
+        if (counts.size() > 1) {
+            logger.warn("Merging shards of different shard counts {}", counts);
+            return;
+        }
+        int count = counts.iterator().next();
+        for (int index = 1; index <= count; index++) {
+            if (!indexes.contains(index)) {
+                logger.warn("Result file of shard {}/{} is missing, its testcases are not in the report", index, count);
+            }
+        }
+    }
+
+    private static List<Path> files(List<Path> locations) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (Path location : locations) {
+            if (!Files.isDirectory(location)) {
+                files.add(location);
+                continue;
+            }
+            try (Stream<Path> found = Files.walk(location)) {
+                found.filter(file -> file.getFileName().toString().matches("shard-\\d+-of-\\d+\\.json"))
+                        .sorted(Comparator.naturalOrder())
+                        .forEach(files::add);
+            }
+        }
+        return files;
+    }
+}
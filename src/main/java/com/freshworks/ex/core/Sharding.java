@@ -0,0 +1,140 @@
+package com.freshworks.ex.core;
+
+import com.freshworks.ex.scenarios.TestCase;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Splits a suite into shards that can run on separate machines.
+ * The split only depends on the testcase keys (and the cost history for {@link Strategy#COST}),
+ * so every shard computes the same assignment without talking to the others.
+ */
+public class Sharding {
+
+    public enum Strategy {
+        /**
+         * Assign by a stable hash of the testcase key.
+         */
+        HASH,
+        /**
+         * Balance the historical cost, every shard needs the same runs/ history to agree on the split.
+         */
+        COST;
+
+        public static Strategy parse(String value) {
+            return Strategy.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private final int index;
+    private final int count;
+    private final Strategy strategy;
+
+    private Sharding(int index, int count, Strategy strategy) {
+        this.index = index;
+        this.count = count;
+        this.strategy = strategy;
+    }
+
+    public static Sharding none() {
+        return new Sharding(1, 1, Strategy.HASH);
+    }
+
+    /**
+     * @param spec     Shard as "index/count", the index starts at 1
+     * @param strategy How testcases are assigned to shards
+     * @return The parsed shard
+     * @throws IllegalArgumentException if the spec is malformed or the index is out of range
+     */
+    public static Sharding parse(String spec, Strategy strategy) {
+        String[] parts = spec.trim().split("/");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Shard must be given as index/count, e.g. 1/4: " + spec);
+        }
+        int index = Integer.parseInt(parts[0].trim());
+        int count = Integer.parseInt(parts[1].trim());
+        if (count < 1 || index < 1 || index > count) {
+            throw new IllegalArgumentException("Shard index must be between 1 and the shard count: " + spec);
+        }
+        return new Sharding(index, count, strategy);
+    }
+
+    public boolean isSharded() {
+        return count > 1;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * @param testCases All testcases of the suite
+     * @param history   Cost history, only used by {@link Strategy#COST}
+     * @return The testcases of this shard, in their original order
+     */
+    public List<TestCase> select(List<TestCase> testCases, CostHistory history) {
+        if (!isSharded()) {
+            return testCases;
+        }
+        Set<String> keys = strategy == Strategy.COST ? balance(testCases, history) : null;
+        List<TestCase> selected = new ArrayList<>();
+        for (TestCase testcase : testCases) {
+            boolean mine = keys != null ? keys.contains(testcase.getKey()) : hash(testcase.getKey()) % count == index - 1;
+            if (mine) {
+                selected.add(testcase);
+            }
+        }
+        return selected;
+    }
+
+    @Override
+    public String toString() {
+        return index + "/" + count;
+    }
+
+    /**
+     * Greedy longest-first partition: every testcase goes to the shard with the least cost so far.
+     * Ties are broken by key and shard number so all shards compute the same split.
+     */
+    private Set<String> balance(List<TestCase> testCases, CostHistory history) {
+        List<TestCase> byCost = new ArrayList<>(testCases);
+        byCost.sort(Comparator.comparingDouble((TestCase testcase) -> history.estimate(testcase.getKey())).reversed()
+                .thenComparing(TestCase::getKey));
+        double[] load = new double[count];
+        Set<String> keys = new HashSet<>();
+        for (TestCase testcase : byCost) {
+            int lightest = 0;
+            for (int shard = 1; shard < count; shard++) {
+                if (load[shard] < load[lightest]) {
+                    lightest = shard;
+                }
+            }
+            load[lightest] += history.estimate(testcase.getKey());
+            if (lightest == index - 1) {
+                keys.add(testcase.getKey());
+            }
+        }
+        return keys;
+    }
+
+    private static long hash(String key) {
+        CRC32 crc = new CRC32();
+        crc.update(key.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+}
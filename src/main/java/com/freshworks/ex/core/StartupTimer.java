@@ -0,0 +1,61 @@
+package com.freshworks.ex.core;
+
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import dev.langchain4j.model.chat.listener.ChatModelRequestContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Times the startup phases and logs how long after JVM start the first LLM request is sent.
+ * Registered as a listener on every chat model, only the first request is logged.
+ */
+final class StartupTimer implements ChatModelListener {
+    static final StartupTimer INSTANCE = new StartupTimer();
+    private static final Logger logger = LoggerFactory.getLogger(StartupTimer.class);
+
+    private final AtomicBoolean firstRequestSeen = new AtomicBoolean();
+
+    private StartupTimer() {
+    }
+
+    /**
+     * @return Milliseconds since the JVM was started
+     */
+    static long sinceJvmStart() {
+        return System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+    }
+
+    /**
+     * Runs and times a startup phase.
+     *
+     * @param name  Name of the phase, used in the log
+     * @param phase The work of the phase
+     * @param <T>   Result type of the phase
+     * @return The result of the phase
+     * @throws CompletionException wrapping a checked exception thrown by the phase
+     */
+    static <T> T phase(String name, Callable<T> phase) {
+        long start = System.currentTimeMillis();
+        try {
+            return phase.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        } finally {
+            logger.info("Startup phase '{}' took {} ms", name, System.currentTimeMillis() - start);
+        }
+    }
+
+    @Override
+    public void onRequest(ChatModelRequestContext requestContext) {
+        if (firstRequestSeen.compareAndSet(false, true)) {
+            logger.info("First LLM request sent {} ms after JVM start", sinceJvmStart());
+        }
+    }
+}
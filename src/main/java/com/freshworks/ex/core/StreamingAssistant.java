@@ -0,0 +1,7 @@
+package com.freshworks.ex.core;
+
+import dev.langchain4j.service.TokenStream;
+
+interface StreamingAssistant {
+    TokenStream execute(String userMessage);
+}
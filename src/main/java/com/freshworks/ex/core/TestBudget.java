@@ -0,0 +1,120 @@
+package com.freshworks.ex.core;
+
+import com.freshworks.ex.utils.clients.RequestScope;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits on LLM turns, tokens and wall time of a single testcase.
+ * Turns and tokens are reported by the {@link TokenUsageListener}, the wall time is enforced
+ * by a watchdog. When a limit is hit the budget aborts the HTTP calls of the testcase,
+ * interrupts its worker and fails every further tool call, so the assistant stops at its next step.
+ */
+class TestBudget implements Closeable {
+    static final String BUDGET_EXCEEDED = "BUDGET_EXCEEDED";
+    private static final Logger logger = LoggerFactory.getLogger(TestBudget.class);
+
+    private static final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "scriptpilot-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String testKey;
+    private final int maxTurns;
+    private final int maxInputTokens;
+    private final int maxOutputTokens;
+    private final Thread worker;
+    private final RequestScope scope = new RequestScope();
+    private final ScheduledFuture<?> deadline;
+    private String exceeded;
+    private boolean closed;
+
+    /**
+     * Starts the budget of a testcase executed by the current thread. A limit of 0 is unlimited.
+     */
+    TestBudget(String testKey, RunOptions options) {
+        this.testKey = testKey;
+        this.maxTurns = options.getMaxTurns();
+        this.maxInputTokens = options.getMaxInputTokens();
+        this.maxOutputTokens = options.getMaxOutputTokens();
+        this.worker = Thread.currentThread();
+        long maxWallTime = options.getMaxWallTimeSeconds();
+        this.deadline = maxWallTime > 0
+                ? watchdog.schedule(() -> exceed("wall time of " + maxWallTime + " s"), maxWallTime, TimeUnit.SECONDS)
+                : null;
+    }
+
+    /**
+     * Called after every LLM response with the totals of the testcase so far.
+     *
+     * @param turns           LLM requests made
+     * @param inputTokens     Input tokens used
+     * @param outputTokens    Output tokens used
+     * @param wantsAnotherTurn Whether the model asked for tools, i.e. another turn will follow
+     */
+    void onUsage(int turns, int inputTokens, int outputTokens, boolean wantsAnotherTurn) {
+        if (maxTurns > 0 && wantsAnotherTurn && turns >= maxTurns) {
+            exceed(turns + " LLM turns (max " + maxTurns + ")");
+        } else if (maxInputTokens > 0 && inputTokens > maxInputTokens) {
+            exceed(inputTokens + " input tokens (max " + maxInputTokens + ")");
+        } else if (maxOutputTokens > 0 && outputTokens > maxOutputTokens) {
+            exceed(outputTokens + " output tokens (max " + maxOutputTokens + ")");
+        }
+    }
+
+    /**
+     * @throws BudgetExceededException if the budget is exhausted
+     */
+    void check() {
+        String reason = reason();
+        if (reason != null) {
+            throw new BudgetExceededException(reason);
+        }
+    }
+
+    /**
+     * @return Why the budget was exceeded, null while it was not
+     */
+    synchronized String reason() {
+        return exceeded;
+    }
+
+    /**
+     * @return Scope of the HTTP calls made by the tools of this testcase
+     */
+    RequestScope scope() {
+        return scope;
+    }
+
+    private synchronized void exceed(String reason) {
+        if (closed || exceeded != null) {
+            return;
+        }
+        exceeded = reason;
+        logger.warn("Testcase {} exceeded its budget: {}", testKey, reason);
+        scope.cancel();
+        worker.interrupt();
+    }
+
+    /**
+     * Stops the watchdog. Must be called by the worker thread once the testcase is done.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        if (deadline != null) {
+            deadline.cancel(false);
+        }
+        // An interrupt sent while the testcase was finishing must not hit the next testcase of this worker
+        Thread.interrupted();
+    }
+}
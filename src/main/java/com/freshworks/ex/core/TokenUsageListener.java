@@ -3,52 +3,101 @@ package com.freshworks.ex.core;
 import dev.langchain4j.model.chat.listener.ChatModelListener;
 import dev.langchain4j.model.chat.listener.ChatModelRequestContext;
 import dev.langchain4j.model.chat.listener.ChatModelResponseContext;
-import lombok.Getter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.DoubleAdder;
 
-@Getter
+/**
+ * Counts the requests and tokens of one testcase. The counters are atomic since the callbacks run
+ * on the streaming and prefetcher threads while the {@link TestBudget} watchdog reads them.
+ */
 public class TokenUsageListener implements ChatModelListener {
-    private int totalInputTokens = 0;
-    private int totalOutputTokens = 0;
-    private double totalCost = 0.0;
-    private int lastInputTokens = 0;
-    private int lastOutputTokens = 0;
+    private final AtomicInteger totalRequests = new AtomicInteger();
+    private final AtomicInteger totalInputTokens = new AtomicInteger();
+    private final AtomicInteger totalOutputTokens = new AtomicInteger();
+    private final DoubleAdder totalCost = new DoubleAdder();
+    private volatile int lastInputTokens = 0;
+    private volatile int lastOutputTokens = 0;
     private static final Logger logger = LoggerFactory.getLogger(TokenUsageListener.class);
+    private final TestBudget budget;
 
     // Claude pricing (check current rates)
     private static final double INPUT_COST_PER_TOKEN = 0.000003; // $3 per 1M tokens
     private static final double OUTPUT_COST_PER_TOKEN = 0.000015; // $15 per 1M tokens
 
+    public TokenUsageListener() {
+        this(null);
+    }
+
+    /**
+     * @param budget Budget of the testcase, told about the usage after every response
+     */
+    TokenUsageListener(TestBudget budget) {
+        this.budget = budget;
+    }
+
     @Override
     public void onRequest(ChatModelRequestContext request) {
-        // Optional
+        totalRequests.incrementAndGet();
     }
 
     @Override
     public void onResponse(ChatModelResponseContext response) {
+        int inputTokens = totalInputTokens.get();
+        int outputTokens = totalOutputTokens.get();
         if (response.chatResponse().tokenUsage() != null) {
             lastInputTokens = response.chatResponse().tokenUsage().inputTokenCount();
             lastOutputTokens = response.chatResponse().tokenUsage().outputTokenCount();
 
-            totalInputTokens += lastInputTokens;
-            totalOutputTokens += lastOutputTokens;
+            inputTokens = totalInputTokens.addAndGet(lastInputTokens);
+            outputTokens = totalOutputTokens.addAndGet(lastOutputTokens);
 
             double requestCost = (lastInputTokens * INPUT_COST_PER_TOKEN) +
                     (lastOutputTokens * OUTPUT_COST_PER_TOKEN);
-            totalCost += requestCost;
+            totalCost.add(requestCost);
 
             logger.debug("Request - Input: {}, Output: {}, Cost: ${}", lastInputTokens, lastOutputTokens,
                     String.format("%.6f", requestCost));
         }
+        if (budget != null) {
+            budget.onUsage(totalRequests.get(), inputTokens, outputTokens,
+                    response.chatResponse().aiMessage() != null
+                            && response.chatResponse().aiMessage().hasToolExecutionRequests());
+        }
+    }
+
+    public int getTotalRequests() {
+        return totalRequests.get();
+    }
+
+    public int getTotalInputTokens() {
+        return totalInputTokens.get();
+    }
+
+    public int getTotalOutputTokens() {
+        return totalOutputTokens.get();
+    }
+
+    public double getTotalCost() {
+        return totalCost.sum();
+    }
+
+    public int getLastInputTokens() {
+        return lastInputTokens;
+    }
+
+    public int getLastOutputTokens() {
+        return lastOutputTokens;
     }
 
     public void reset() {
-        totalInputTokens = 0;
-        totalOutputTokens = 0;
-        totalCost = 0.0;
+        totalRequests.set(0);
+        totalInputTokens.set(0);
+        totalOutputTokens.set(0);
+        totalCost.reset();
         lastInputTokens = 0;
         lastOutputTokens = 0;
     }
-}
\ No newline at end of file
+}
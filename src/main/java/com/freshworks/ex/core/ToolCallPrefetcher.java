@@ -0,0 +1,145 @@
+package com.freshworks.ex.core;
+
+import com.freshworks.ex.utils.clients.RequestScope;
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import dev.langchain4j.model.chat.listener.ChatModelResponseContext;
+import dev.langchain4j.service.tool.ToolExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the tool calls the model requested in a single turn concurrently.
+ * AiServices executes the calls of a turn one after another, so this listener starts all of
+ * them as soon as the model response arrives, and the tool executors then pick up the
+ * finished results in the order the model asked for them.
+ * The calls are spread over at most {@code maxPerTurn} lanes, each lane running its calls in order.
+ * No calls are started once the budget of the testcase is exceeded, and {@link #close()} drops
+ * the calls the conversation never asked for.
+ */
+class ToolCallPrefetcher implements ChatModelListener, AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ToolCallPrefetcher.class);
+
+    private static final AtomicInteger threadCounter = new AtomicInteger();
+    private static final ExecutorService pool = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "scriptpilot-tool-" + threadCounter.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<String, ToolExecutor> executors;
+    private final int maxPerTurn;
+    private final TestBudget budget;
+    private final RequestScope scope;
+    private final Map<String, CompletableFuture<String>> pending = new ConcurrentHashMap<>();
+
+    /**
+     * @param executors  Executors of the tools available to the testcase, by tool name
+     * @param maxPerTurn Maximum number of tool calls of one turn running at the same time
+     * @param budget     Budget of the testcase the calls are made for, its request scope covers the calls
+     */
+    ToolCallPrefetcher(Map<String, ToolExecutor> executors, int maxPerTurn, TestBudget budget) {
+        this.executors = executors;
+        this.maxPerTurn = maxPerTurn;
+        this.budget = budget;
+        this.scope = budget.scope().child();
+    }
+
+    @Override
+    public void onResponse(ChatModelResponseContext responseContext) {
+        AiMessage message = responseContext.chatResponse().aiMessage();
+        if (maxPerTurn < 2 || message == null || !message.hasToolExecutionRequests() || scope.isCancelled()) {
+            return;
+        }
+        // The usage listener runs first, so a turn that used up the budget has already exceeded it
+        if (budget.reason() != null) {
+            logger.debug("Budget exceeded, not prefetching the tool calls of this turn");
+            return;
+        }
+        List<ToolExecutionRequest> requests = message.toolExecutionRequests().stream()
+                .filter(request -> request.id() != null && executors.containsKey(request.name()))
+                .toList();
+        if (requests.size() < 2) {
+            return;
+        }
+
+        int laneCount = Math.min(maxPerTurn, requests.size());
+        List<List<Runnable>> lanes = new ArrayList<>();
+        for (int i = 0; i < laneCount; i++) {
+            lanes.add(new ArrayList<>());
+        }
+        for (int i = 0; i < requests.size(); i++) {
+            ToolExecutionRequest request = requests.get(i);
+            // The lane holds on to the future, take() removes it from pending before the call may have started
+            CompletableFuture<String> future = new CompletableFuture<>();
+            pending.put(request.id(), future);
+            lanes.get(i % laneCount).add(() -> run(request, future));
+        }
+        logger.debug("Running {} tool calls of one turn on {} lanes", requests.size(), laneCount);
+        for (List<Runnable> lane : lanes) {
+            pool.execute(() -> lane.forEach(Runnable::run));
+        }
+    }
+
+    /**
+     * Returns the result of a call that was started ahead of time, waiting for it if needed.
+     *
+     * @param request The call AiServices is about to execute
+     * @return The result, or empty if the call was not prefetched
+     */
+    Optional<String> take(ToolExecutionRequest request) {
+        CompletableFuture<String> future = request.id() == null ? null : pending.remove(request.id());
+        if (future == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(future.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for tool " + request.name(), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Tool " + request.name() + " failed", e.getCause());
+        }
+    }
+
+    /**
+     * Cancels the calls that were started ahead of time but never taken, e.g. because the
+     * conversation ended before the model's tool calls were executed. Calls in flight are aborted.
+     */
+    @Override
+    public void close() {
+        scope.cancel();
+        if (!pending.isEmpty()) {
+            logger.debug("Dropping {} prefetched tool calls that were never taken", pending.size());
+            pending.values().forEach(future -> future.cancel(false));
+            pending.clear();
+        }
+    }
+
+    private void run(ToolExecutionRequest request, CompletableFuture<String> future) {
+        if (future.isDone()) {
+            // Dropped by close() before the lane got to it
+            return;
+        }
+        try {
+            future.complete(scope.call(() -> executors.get(request.name()).execute(request, "default")));
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.freshworks.ex.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the tool calls made while a single testcase is executed, in execution order.
+ */
+class ToolCallRecorder {
+
+    record ToolCall(String name, String arguments, String result) {
+    }
+
+    private final List<ToolCall> calls = new ArrayList<>();
+
+    synchronized void record(String name, String arguments, String result) {
+        calls.add(new ToolCall(name, arguments, result));
+    }
+
+    synchronized void clear() {
+        calls.clear();
+    }
+
+    synchronized List<ToolCall> calls() {
+        return List.copyOf(calls);
+    }
+}
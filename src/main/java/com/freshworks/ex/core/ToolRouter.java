@@ -0,0 +1,54 @@
+package com.freshworks.ex.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Picks the tool groups a testcase needs from keywords in its steps, so the model is not
+ * sent the schemas of every proxy on every turn.
+ * Testcases that match no rule get all groups.
+ */
+class ToolRouter {
+    private static final Logger logger = LoggerFactory.getLogger(ToolRouter.class);
+
+    private static final Map<String, Pattern> RULES = new LinkedHashMap<>();
+
+    static {
+        RULES.put("department", Pattern.compile("(?i)\\bdepartments?\\b"));
+        RULES.put("requester", Pattern.compile("(?i)\\b(requesters?|contacts?|users?)\\b"));
+        RULES.put("agent", Pattern.compile("(?i)\\bagents?\\b"));
+        RULES.put("workspaces", Pattern.compile("(?i)\\bworkspaces?\\b"));
+        RULES.put("ticket", Pattern.compile("(?i)\\b(tickets?|incidents?)\\b"));
+    }
+
+    // Test data generators are small and needed by almost every testcase
+    private static final Set<String> ALWAYS_INCLUDED = Set.of("email");
+
+    private final Set<String> allGroups;
+
+    ToolRouter(Set<String> allGroups) {
+        this.allGroups = allGroups;
+    }
+
+    Set<String> route(String steps) {
+        Set<String> routed = new LinkedHashSet<>();
+        RULES.forEach((group, pattern) -> {
+            if (steps != null && pattern.matcher(steps).find()) {
+                routed.add(group);
+            }
+        });
+        if (routed.isEmpty()) {
+            return allGroups;
+        }
+        routed.addAll(ALWAYS_INCLUDED);
+        routed.retainAll(allGroups);
+        logger.debug("Routed tool groups {}", routed);
+        return routed;
+    }
+}
@@ -0,0 +1,176 @@
+package com.freshworks.ex.core;
+
+import com.freshworks.ex.utils.TokenCounter;
+import com.freshworks.ex.utils.clients.ToolName;
+import dev.langchain4j.agent.tool.Tool;
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.agent.tool.ToolSpecifications;
+import dev.langchain4j.service.tool.DefaultToolExecutor;
+import dev.langchain4j.service.tool.ToolExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Registry of the {@link Tool} methods exposed by the proxies.
+ * The tool specifications are resolved once and shared, while every testcase gets its own
+ * executor map so tool calls can be recorded per testcase.
+ * Tools are grouped by the proxy that declares them, e.g. "requester" for RequesterProxy,
+ * so a testcase can be given only the groups it needs.
+ */
+class Toolbox {
+    private static final Logger logger = LoggerFactory.getLogger(Toolbox.class);
+    // Tool names of the proxies follow the REST verbs, e.g. getAgent, listDepartments, viewTicket
+    private static final List<String> READ_ONLY_PREFIXES = List.of("get", "list", "view", "generate");
+
+    private final Map<String, ToolSpecification> specifications = new LinkedHashMap<>();
+    private final Map<String, ToolExecutor> executors = new LinkedHashMap<>();
+    private final Map<String, String> groups = new LinkedHashMap<>();
+    private final Map<String, Integer> specificationTokens = new LinkedHashMap<>();
+
+    Toolbox(Object... toolObjects) {
+        for (Object toolObject : toolObjects) {
+            String group = group(toolObject.getClass());
+            for (Method method : toolObject.getClass().getDeclaredMethods()) {
+                if (method.isAnnotationPresent(Tool.class)) {
+                    ToolSpecification specification = ToolSpecifications.toolSpecificationFrom(method);
+                    specifications.put(specification.name(), specification);
+                    ToolExecutor executor = new DefaultToolExecutor(toolObject, method);
+                    // Tags the HTTP calls of the tool, e.g. for the retry log
+                    executors.put(specification.name(), (request, memoryId) ->
+                            ToolName.call(request.name(), () -> executor.execute(request, memoryId)));
+                    groups.put(specification.name(), group);
+                    specificationTokens.put(specification.name(), TokenCounter.count(specification.toString()));
+                }
+            }
+        }
+        logger.debug("Registered {} tools in groups {}", specifications.size(), groups());
+    }
+
+    /**
+     * @return Names of all tool groups
+     */
+    Set<String> groups() {
+        return Collections.unmodifiableSet(new LinkedHashSet<>(groups.values()));
+    }
+
+    boolean has(String toolName) {
+        return specifications.containsKey(toolName);
+    }
+
+    /**
+     * @return Whether the tool can change tenant data, i.e. it does not only read or generate values
+     */
+    boolean mutates(String toolName) {
+        return READ_ONLY_PREFIXES.stream().noneMatch(toolName::startsWith);
+    }
+
+    /**
+     * Estimates the input tokens the tool specifications outside the given groups add to every LLM turn.
+     *
+     * @param included Groups sent to the model
+     * @return Estimated tokens of the specifications that were left out
+     */
+    int excludedSpecificationTokens(Set<String> included) {
+        return specificationTokens.entrySet().stream()
+                .filter(entry -> !included.contains(groups.get(entry.getKey())))
+                .mapToInt(Map.Entry::getValue)
+                .sum();
+    }
+
+    /**
+     * @param included Tool groups to expose
+     * @return The plain executors of the tools in the given groups, by tool name
+     */
+    Map<String, ToolExecutor> executors(Set<String> included) {
+        Map<String, ToolExecutor> selected = new LinkedHashMap<>();
+        executors.forEach((name, executor) -> {
+            if (included.contains(groups.get(name))) {
+                selected.put(name, executor);
+            }
+        });
+        return selected;
+    }
+
+    /**
+     * Builds the tool map for a single testcase. Every executed call is reported to the recorder
+     * in the order the model requested it, also when the prefetcher already ran it.
+     *
+     * Once the budget is exceeded every call fails, which ends the conversation.
+     *
+     * @param recorder   Recorder of the testcase
+     * @param prefetcher Prefetcher of the testcase holding calls that were started ahead of time
+     * @param budget     Budget of the testcase, its request scope covers the HTTP calls of the tools
+     * @param included   Tool groups to expose
+     * @return Tool specifications mapped to their executors
+     */
+    Map<ToolSpecification, ToolExecutor> tools(ToolCallRecorder recorder, ToolCallPrefetcher prefetcher,
+                                               TestBudget budget, Set<String> included) {
+        Map<ToolSpecification, ToolExecutor> tools = new LinkedHashMap<>();
+        specifications.forEach((name, specification) -> {
+            if (included.contains(groups.get(name))) {
+                tools.put(specification, executor(name, recorder, prefetcher, budget));
+            }
+        });
+        return tools;
+    }
+
+    /**
+     * Builds the executor of a single tool for a testcase like {@link #tools}, also when its
+     * group was not exposed to the model.
+     *
+     * @param name       Tool name
+     * @param recorder   Recorder of the testcase
+     * @param prefetcher Prefetcher of the testcase holding calls that were started ahead of time
+     * @param budget     Budget of the testcase, its request scope covers the HTTP calls of the tool
+     * @return The executor, or null if the tool does not exist
+     */
+    ToolExecutor executor(String name, ToolCallRecorder recorder, ToolCallPrefetcher prefetcher, TestBudget budget) {
+        ToolExecutor executor = executors.get(name);
+        if (executor == null) {
+            return null;
+        }
+        return (request, memoryId) -> {
+            budget.check();
+            String result = prefetcher.take(request)
+                    .orElseGet(() -> budget.scope().call(() -> executor.execute(request, memoryId)));
+            recorder.record(request.name(), request.arguments(), result);
+            return result;
+        };
+    }
+
+    /**
+     * Executes a tool directly, without going through the LLM.
+     *
+     * @param name      Tool name
+     * @param arguments Tool arguments as JSON
+     * @return The tool result as it would be sent to the LLM
+     * @throws IllegalArgumentException if the tool does not exist
+     */
+    String execute(String name, String arguments) {
+        ToolExecutor executor = executors.get(name);
+        if (executor == null) {
+            throw new IllegalArgumentException("Unknown tool: " + name);
+        }
+        ToolExecutionRequest request = ToolExecutionRequest.builder()
+                .id(UUID.randomUUID().toString())
+                .name(name)
+                .arguments(arguments)
+                .build();
+        return executor.execute(request, "default");
+    }
+
+    private static String group(Class<?> toolClass) {
+        return toolClass.getSimpleName().replaceAll("(Proxy|Tool)$", "").toLowerCase(Locale.ROOT);
+    }
+}
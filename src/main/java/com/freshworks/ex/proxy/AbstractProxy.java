@@ -1,6 +1,7 @@
 package com.freshworks.ex.proxy;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.freshworks.ex.utils.clients.BaseUrls;
 import com.freshworks.ex.utils.clients.FsClient;
 import com.freshworks.ex.utils.clients.FsPrivateClient;
 import com.freshworks.ex.utils.clients.RestClient;
@@ -11,10 +12,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.Optional;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class AbstractProxy {
     private static final Logger logger = LoggerFactory.getLogger(AbstractProxy.class);
+    private static final ToolResultProjector projector = ToolResultProjector.load();
     protected final Serializer serializer;
     protected final RestClient restClient;
 
@@ -27,26 +32,125 @@ public class AbstractProxy {
 
     public AbstractProxy(String domain, String email, String password) {
         logger.debug("Initializing AbstractProxy (Private) with domain: {}, user: {}", domain, email);
-        String baseUrl = "https://" + domain + ".freshcmdb.com";
+        String baseUrl = BaseUrls.freshservice(domain);
         this.serializer = new Serializer();
         this.restClient = new FsPrivateClient(baseUrl, email, password);
     }
 
+    /**
+     * Parses the response body straight from its byte stream and closes the response.
+     */
     protected JsonNode parse(Response response) throws IOException {
-        Optional<ResponseBody> body = Optional.ofNullable(response.body());
-        if (body.isPresent()) {
-            String jsonStr = body.get().string();
-            return serializer.parse(jsonStr);
+        try (response) {
+            ResponseBody body = response.body();
+            return body == null ? null : serializer.parse(body.byteStream());
         }
-        return null;
     }
 
+    /**
+     * Turns a response into the tool result and closes it. Large responses are projected while
+     * they are parsed, see {@link ToolResultProjector#project(String, InputStream, long)}.
+     */
     protected JsonNode handleResponse(Response resp, String action) throws IOException {
-        String body = resp.body().string();
-        if (!resp.isSuccessful()) {
-            logger.warn("{} failed: {} - {}", action, resp.code(), body);
-            return serializer.parse("{\"error\": \"" + action + " failed\", \"code\": " + resp.code() + "}");
+        try (resp) {
+            ResponseBody body = resp.body();
+            if (!resp.isSuccessful()) {
+                logger.warn("{} failed: {} - {}", action, resp.code(), body == null ? "" : body.string());
+                return serializer.parse("{\"error\": \"" + action + " failed\", \"code\": " + resp.code() + "}");
+            }
+            return projector.project(action, body.byteStream(), body.contentLength());
         }
-        return serializer.parse(body);
+    }
+
+    /**
+     * Asynchronous {@link #handleResponse(Response, String)}, for calls made with the
+     * asynchronous {@link RestClient} methods. Cancelling the returned future aborts the call.
+     *
+     * @param response Future of the response
+     * @param action   Name of the tool making the call
+     * @return Future of the handled result
+     */
+    protected CompletableFuture<JsonNode> handleResponseAsync(CompletableFuture<Response> response, String action) {
+        CompletableFuture<JsonNode> result = response.thenApply(resp -> {
+            try {
+                return handleResponse(resp, action);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        });
+        result.whenComplete((node, error) -> {
+            if (error != null) {
+                response.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * GETs a path without blocking and handles the response like {@link #handleResponse(Response, String)}.
+     *
+     * @param path     The API endpoint path to request
+     * @param deadline Time allowed for the whole call, or null for the client's call timeout
+     * @param action   Name of the tool making the call
+     * @return Future of the handled result, cancelling it aborts the call
+     */
+    protected CompletableFuture<JsonNode> getAsync(String path, Duration deadline, String action) {
+        return handleResponseAsync(restClient.getAsync(path, deadline), action);
+    }
+
+    /**
+     * POSTs a payload without blocking and handles the response like {@link #handleResponse(Response, String)}.
+     *
+     * @param path     The API endpoint path to request
+     * @param payload  The JSON string to send in the request body
+     * @param deadline Time allowed for the whole call, or null for the client's call timeout
+     * @param action   Name of the tool making the call
+     * @return Future of the handled result, cancelling it aborts the call
+     */
+    protected CompletableFuture<JsonNode> postAsync(String path, String payload, Duration deadline, String action) {
+        return handleResponseAsync(restClient.postAsync(path, payload, deadline), action);
+    }
+
+    /**
+     * PUTs a payload without blocking and handles the response like {@link #handleResponse(Response, String)}.
+     *
+     * @param path     The API endpoint path to request
+     * @param payload  The JSON string to send in the request body
+     * @param deadline Time allowed for the whole call, or null for the client's call timeout
+     * @param action   Name of the tool making the call
+     * @return Future of the handled result, cancelling it aborts the call
+     */
+    protected CompletableFuture<JsonNode> putAsync(String path, String payload, Duration deadline, String action) {
+        return handleResponseAsync(restClient.putAsync(path, payload, deadline), action);
+    }
+
+    /**
+     * DELETEs a path without blocking and handles the response like {@link #handleResponse(Response, String)}.
+     *
+     * @param path     The API endpoint path to request
+     * @param deadline Time allowed for the whole call, or null for the client's call timeout
+     * @param action   Name of the tool making the call
+     * @return Future of the handled result, cancelling it aborts the call
+     */
+    protected CompletableFuture<JsonNode> deleteAsync(String path, Duration deadline, String action) {
+        return handleResponseAsync(restClient.deleteAsync(path, deadline), action);
+    }
+
+    /**
+     * Trims a successful tool result to the fields the LLM needs, see {@link ToolResultProjector}.
+     *
+     * @param action Name of the tool that produced the result
+     * @param result The raw result
+     * @return The projected result
+     */
+    protected JsonNode project(String action, JsonNode result) {
+        return projector.project(action, result);
+    }
+
+    /**
+     * @return Tool results projected since the start of the run, with their token counts
+     */
+    public static ToolResultProjector.Stats projectionStats() {
+        return projector.stats();
     }
 }
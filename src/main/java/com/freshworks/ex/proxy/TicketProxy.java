@@ -1,7 +1,6 @@
 package com.freshworks.ex.proxy;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.freshworks.ex.proxy.user.RequesterProxy;
 import dev.langchain4j.agent.tool.P;
 import dev.langchain4j.agent.tool.Tool;
 import org.slf4j.Logger;
@@ -14,13 +13,11 @@ import java.util.stream.Collectors;
 
 public class TicketProxy extends AbstractProxy {
 
-    private final RequesterProxy requesterProxy;
     private static final Logger logger = LoggerFactory.getLogger(TicketProxy.class);
     private static final String TICKETS = "/tickets";
 
     public TicketProxy(String domain) {
         super(domain);
-        this.requesterProxy = new RequesterProxy(domain);
     }
 
     private static final Map<String, Integer> PRIORITY_MAP = Map.of(
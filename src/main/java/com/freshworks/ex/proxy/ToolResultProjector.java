@@ -0,0 +1,360 @@
+package com.freshworks.ex.proxy;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.freshworks.ex.utils.Serializer;
+import com.freshworks.ex.utils.TokenCounter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shrinks tool results before they are handed back to the LLM.
+ * Only the tools listed in the configuration are projected, the results of all other tools
+ * are passed through unchanged. For a listed tool a whitelist of field names can be
+ * configured, which is applied at every object level. Long arrays are cut to a maximum
+ * number of items with a count of the original size, a cut top level array is wrapped in an
+ * object for that, and null or empty values are dropped. The top level "max_array_items"
+ * and "drop_empty" are the defaults of the listed tools.
+ * The configuration is read from the "tool-projections.json" resource, or from the file in
+ * SP_TOOL_PROJECTIONS. Projection can be switched off with SP_TOOL_PROJECTION=false.
+ * <p>
+ * Responses larger than SP_TOOL_STREAMING_BYTES are projected while they are parsed,
+ * without building the tree of the raw result. The token counts before and after
+ * projection are summed up for the run, see {@link #stats()}.
+ */
+public class ToolResultProjector {
+    private static final Logger logger = LoggerFactory.getLogger(ToolResultProjector.class);
+    private static final String PROJECTIONS_FILE = "/tool-projections.json";
+    private static final String TOTAL_SUFFIX = "_total_count";
+    private static final String ITEMS = "items";
+
+    private final boolean enabled;
+    private final long streamingBytes;
+    private final Serializer serializer = new Serializer();
+    private final Map<String, Projection> projections = new HashMap<>();
+
+    private final AtomicLong results = new AtomicLong();
+    private final AtomicLong tokensBefore = new AtomicLong();
+    private final AtomicLong tokensAfter = new AtomicLong();
+    private final AtomicLong streamed = new AtomicLong();
+    private final AtomicLong streamedBytes = new AtomicLong();
+    private final AtomicLong streamedTokens = new AtomicLong();
+
+    private ToolResultProjector(boolean enabled, long streamingBytes, JsonNode config) {
+        this.enabled = enabled;
+        this.streamingBytes = streamingBytes;
+        int defaultMaxArrayItems = config.path("max_array_items").asInt(Integer.MAX_VALUE);
+        boolean defaultDropEmpty = config.path("drop_empty").asBoolean(false);
+        config.path("tools").fields().forEachRemaining(tool -> {
+            Set<String> whitelist = new HashSet<>();
+            tool.getValue().path("fields").forEach(field -> whitelist.add(field.asText()));
+            projections.put(tool.getKey(), new Projection(whitelist.isEmpty() ? null : whitelist,
+                    tool.getValue().path("max_array_items").asInt(defaultMaxArrayItems),
+                    tool.getValue().path("drop_empty").asBoolean(defaultDropEmpty)));
+        });
+    }
+
+    public static ToolResultProjector load() {
+        boolean enabled = !"false".equalsIgnoreCase(System.getenv("SP_TOOL_PROJECTION"));
+        String override = System.getenv("SP_TOOL_PROJECTIONS");
+        String streaming = System.getenv("SP_TOOL_STREAMING_BYTES");
+        long streamingBytes = streaming == null || streaming.isBlank() ? 1024 * 1024 : Long.parseLong(streaming.trim());
+        try {
+            String config;
+            if (override != null && !override.isBlank()) {
+                config = Files.readString(Paths.get(override));
+            } else {
+                try (InputStream inputStream = ToolResultProjector.class.getResourceAsStream(PROJECTIONS_FILE)) {
+                    config = inputStream == null ? "{}" : new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+                }
+            }
+            return new ToolResultProjector(enabled, streamingBytes, new Serializer().parse(config));
+        } catch (IOException e) {
+            logger.error("Failed to load tool projections, results are passed through unchanged", e);
+            return new ToolResultProjector(false, streamingBytes, JsonNodeFactory.instance.objectNode());
+        }
+    }
+
+    /**
+     * Applies the projection configured for the tool.
+     *
+     * @param tool   Name of the tool that produced the result
+     * @param result The raw result
+     * @return The projected result
+     */
+    public JsonNode project(String tool, JsonNode result) {
+        Projection projection = projections.get(tool);
+        if (!enabled || projection == null || result == null) {
+            return result;
+        }
+        JsonNode projected = project(result, projection);
+        if (projected == null) {
+            projected = JsonNodeFactory.instance.objectNode();
+        } else if (result.isArray() && result.size() > projection.maxArrayItems()) {
+            projected = truncated(projected, result.size());
+        }
+        int before = TokenCounter.count(result.toString());
+        int after = TokenCounter.count(projected.toString());
+        results.incrementAndGet();
+        tokensBefore.addAndGet(before);
+        tokensAfter.addAndGet(after);
+        logger.debug("{} result projected from {} to {} tokens", tool, before, after);
+        return projected;
+    }
+
+    /**
+     * Reads a response body and applies the projection configured for the tool. A body
+     * larger than SP_TOOL_STREAMING_BYTES is projected while it is parsed. When the length is
+     * not known up front, e.g. for chunked responses, up to that many bytes are read first to
+     * find out.
+     *
+     * @param tool          Name of the tool that produced the result
+     * @param body          The raw response body, not closed
+     * @param contentLength Length of the body, -1 if unknown
+     * @return The projected result
+     * @throws IOException if the body cannot be read or is malformed
+     */
+    public JsonNode project(String tool, InputStream body, long contentLength) throws IOException {
+        if (!enabled || !projections.containsKey(tool) || streamingBytes < 0
+                || (contentLength >= 0 && contentLength <= streamingBytes)) {
+            return project(tool, serializer.parse(body));
+        }
+        InputStream stream = body;
+        if (contentLength < 0) {
+            byte[] head = body.readNBytes((int) Math.min(streamingBytes + 1, Integer.MAX_VALUE - 8));
+            if (head.length <= streamingBytes) {
+                return project(tool, serializer.parse(new ByteArrayInputStream(head)));
+            }
+            stream = new SequenceInputStream(new ByteArrayInputStream(head), body);
+        }
+        try (JsonParser parser = serializer.parser(stream)) {
+            return project(tool, parser);
+        }
+    }
+
+    /**
+     * Applies the projection configured for the tool while the result is parsed. Fields outside
+     * the whitelist and array items past the limit are skipped token by token instead of being
+     * built, so only the projected result is held in memory.
+     *
+     * @param tool   Name of the tool that produced the result
+     * @param parser Parser positioned before the raw result
+     * @return The same result as {@link #project(String, JsonNode)} of the parsed result
+     * @throws IOException if the result cannot be read or is malformed
+     */
+    public JsonNode project(String tool, JsonParser parser) throws IOException {
+        if (parser.nextToken() == null) {
+            return project(tool, MissingNode.getInstance());
+        }
+        Projection projection = projections.get(tool);
+        if (!enabled || projection == null) {
+            return parser.readValueAsTree();
+        }
+        JsonNode projected;
+        if (parser.currentToken() == JsonToken.START_ARRAY) {
+            ArrayNode items = JsonNodeFactory.instance.arrayNode();
+            int size = projectArray(parser, projection, items);
+            projected = projection.isDropped(items) ? null
+                    : size > projection.maxArrayItems() ? truncated(items, size) : items;
+        } else {
+            projected = project(parser, projection);
+        }
+        if (projected == null) {
+            projected = JsonNodeFactory.instance.objectNode();
+        }
+        // The raw result was never built, so it is accounted for in bytes
+        long before = parser.currentLocation().getByteOffset();
+        int after = TokenCounter.count(projected.toString());
+        streamed.incrementAndGet();
+        streamedBytes.addAndGet(before);
+        streamedTokens.addAndGet(after);
+        logger.debug("{} result projected from {} bytes to {} tokens", tool, before, after);
+        return projected;
+    }
+
+    /**
+     * @return Results projected since the start of the run
+     */
+    public Stats stats() {
+        return new Stats(results.get(), tokensBefore.get(), tokensAfter.get(), streamed.get(), streamedBytes.get(),
+                streamedTokens.get());
+    }
+
+    /**
+     * A cut top level array has no object to carry its count, so it is wrapped in one, e.g.
+     * {"items": [...], "items_total_count": 250}.
+     */
+    private static JsonNode truncated(JsonNode items, int size) {
+        ObjectNode wrapped = JsonNodeFactory.instance.objectNode();
+        wrapped.set(ITEMS, items);
+        wrapped.put(ITEMS + TOTAL_SUFFIX, size);
+        return wrapped;
+    }
+
+    /**
+     * Projects the value starting at the current token and leaves the parser on its last token.
+     */
+    private JsonNode project(JsonParser parser, Projection projection) throws IOException {
+        switch (parser.currentToken()) {
+            case START_OBJECT -> {
+                ObjectNode projected = JsonNodeFactory.instance.objectNode();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.currentName();
+                    JsonToken token = parser.nextToken();
+                    if (!projection.keeps(name)) {
+                        parser.skipChildren();
+                        continue;
+                    }
+                    if (token == JsonToken.START_ARRAY) {
+                        ArrayNode items = JsonNodeFactory.instance.arrayNode();
+                        int size = projectArray(parser, projection, items);
+                        if (!projection.isDropped(items)) {
+                            projected.set(name, items);
+                            if (size > projection.maxArrayItems()) {
+                                projected.put(name + TOTAL_SUFFIX, size);
+                            }
+                        }
+                    } else {
+                        JsonNode value = project(parser, projection);
+                        if (value != null) {
+                            projected.set(name, value);
+                        }
+                    }
+                }
+                return projection.isDropped(projected) ? null : projected;
+            }
+            case START_ARRAY -> {
+                ArrayNode items = JsonNodeFactory.instance.arrayNode();
+                projectArray(parser, projection, items);
+                return projection.isDropped(items) ? null : items;
+            }
+            case VALUE_NULL -> {
+                return projection.dropEmpty() ? null : NullNode.getInstance();
+            }
+            default -> {
+                JsonNode value = parser.readValueAsTree();
+                return projection.isDropped(value) ? null : value;
+            }
+        }
+    }
+
+    /**
+     * Adds the projected items of the array starting at the current token to the given node.
+     *
+     * @return Number of items in the raw array
+     */
+    private int projectArray(JsonParser parser, Projection projection, ArrayNode projected) throws IOException {
+        int size = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            size++;
+            if (projected.size() == projection.maxArrayItems()) {
+                parser.skipChildren();
+                continue;
+            }
+            JsonNode value = project(parser, projection);
+            if (value != null) {
+                projected.add(value);
+            }
+        }
+        return size;
+    }
+
+    private JsonNode project(JsonNode node, Projection projection) {
+        if (node.isObject()) {
+            ObjectNode projected = JsonNodeFactory.instance.objectNode();
+            Iterator<Map.Entry<String, JsonNode>> entries = node.fields();
+            while (entries.hasNext()) {
+                Map.Entry<String, JsonNode> entry = entries.next();
+                if (!projection.keeps(entry.getKey())) {
+                    continue;
+                }
+                JsonNode value = project(entry.getValue(), projection);
+                if (value != null) {
+                    projected.set(entry.getKey(), value);
+                    if (entry.getValue().isArray() && entry.getValue().size() > projection.maxArrayItems()) {
+                        projected.put(entry.getKey() + TOTAL_SUFFIX, entry.getValue().size());
+                    }
+                }
+            }
+            return projection.isDropped(projected) ? null : projected;
+        }
+        if (node.isArray()) {
+            ArrayNode projected = JsonNodeFactory.instance.arrayNode();
+            int kept = 0;
+            for (JsonNode element : node) {
+                if (kept == projection.maxArrayItems()) {
+                    break;
+                }
+                JsonNode value = project(element, projection);
+                if (value != null) {
+                    projected.add(value);
+                    kept++;
+                }
+            }
+            return projection.isDropped(projected) ? null : projected;
+        }
+        return projection.isDropped(node) ? null : node;
+    }
+
+    /**
+     * Projection of a single tool.
+     *
+     * @param fields        Field names to keep at every object level, or null to keep all
+     * @param maxArrayItems Items kept of every array
+     * @param dropEmpty     Whether null and empty values are dropped
+     */
+    private record Projection(Set<String> fields, int maxArrayItems, boolean dropEmpty) {
+        boolean keeps(String field) {
+            return fields == null || fields.contains(field);
+        }
+
+        boolean isDropped(JsonNode node) {
+            if (!dropEmpty) {
+                return false;
+            }
+            return node.isNull() || node.isMissingNode() || (node.isContainerNode() && node.isEmpty())
+                    || (node.isTextual() && node.asText().isEmpty());
+        }
+    }
+
+    /**
+     * @param results        Results projected from a tree
+     * @param tokensBefore   Tokens of these results before projection
+     * @param tokensAfter    Tokens of these results after projection
+     * @param streamed       Large results projected while they were parsed
+     * @param streamedBytes  Bytes of these results before projection
+     * @param streamedTokens Tokens of these results after projection
+     */
+    public record Stats(long results, long tokensBefore, long tokensAfter, long streamed, long streamedBytes,
+                        long streamedTokens) {
+        @Override
+        public String toString() {
+            String summary = String.format("%d projected from %d to %d tokens", results, tokensBefore, tokensAfter);
+            if (streamed > 0) {
+                summary += String.format(", %d streamed from %d bytes to %d tokens", streamed, streamedBytes,
+                        streamedTokens);
+            }
+            return summary;
+        }
+    }
+}
@@ -10,6 +10,8 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.security.SecureRandom;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class WorkspacesProxy extends AbstractProxy {
     private static final Logger logger = LoggerFactory.getLogger(WorkspacesProxy.class);
@@ -39,14 +41,20 @@ public class WorkspacesProxy extends AbstractProxy {
 
     @Tool(name = "listWorkspaces")
     public JsonNode listWorkspaces() throws IOException {
+        return project("listWorkspaces", fetchWorkspaces());
+    }
+
+    private JsonNode fetchWorkspaces() throws IOException {
         logger.info("Fetching all workspaces");
 
         String fullPath = WORKSPACES;
         Response response = restClient.get(fullPath);
         if (!response.isSuccessful()) {
-            String errorBody = response.body() != null ? response.body().string() : "no body";
-            logger.error("Failed to fetch workspaces. Status: {}, Body: {}", response.code(), errorBody);
-            throw new IOException("Failed to fetch workspaces: " + response.code());
+            try (response) {
+                String errorBody = response.body() != null ? response.body().string() : "no body";
+                logger.error("Failed to fetch workspaces. Status: {}, Body: {}", response.code(), errorBody);
+                throw new IOException("Failed to fetch workspaces: " + response.code());
+            }
         }
 
         return parse(response);
@@ -93,9 +101,11 @@ public class WorkspacesProxy extends AbstractProxy {
     @Tool(name = "deleteAllNonPrimaryWorkspaces")
     public JsonNode deleteAllNonPrimaryWorkspaces() throws IOException {
         logger.info("Deleting all non-primary workspaces");
-        JsonNode workspacesNode = listWorkspaces().get("workspaces");
+        // Uses the unprojected list, archiving needs every workspace and its primary flag
+        JsonNode workspacesNode = fetchWorkspaces().get("workspaces");
 
-        List<Integer> deleted = new ArrayList<>();
+        // The archive calls are independent, so they are all in flight at once instead of one after another
+        Map<Integer, CompletableFuture<JsonNode>> archives = new LinkedHashMap<>();
         if (workspacesNode != null && workspacesNode.isArray()) {
             for (JsonNode ws : workspacesNode) {
                 boolean isPrimary = ws.path("primary").asBoolean(false);
@@ -103,16 +113,25 @@ public class WorkspacesProxy extends AbstractProxy {
                     int wsId = ws.path("id").asInt();
                     String path = WORKSPACES + "/" + wsId;
                     String payload = "{\"state\": \"archived\"}";
+                    archives.put(wsId, putAsync(path, payload, null, "archiveWorkspace"));
+                }
+            }
+        }
 
-                    Response resp = restClient.put(path, payload);
-                    if (!resp.isSuccessful()) {
-                        logger.warn("Failed to archive workspace {}: {}", wsId, resp.code());
-                        continue;
-                    }
-                    deleted.add(wsId);
-                    logger.info("Archived workspace ID: {}", wsId);
+        List<Integer> deleted = new ArrayList<>();
+        for (Map.Entry<Integer, CompletableFuture<JsonNode>> archive : archives.entrySet()) {
+            int wsId = archive.getKey();
+            try {
+                if (archive.getValue().join().has("error")) {
+                    logger.warn("Failed to archive workspace {}", wsId);
+                    continue;
                 }
+            } catch (CompletionException e) {
+                logger.warn("Failed to archive workspace {}: {}", wsId, e.getCause().getMessage());
+                continue;
             }
+            deleted.add(wsId);
+            logger.info("Archived workspace ID: {}", wsId);
         }
 
         Map<String, Object> result = Map.of("status", "success", "archived_count", deleted.size(),
@@ -48,10 +48,11 @@ public class DepartmentProxy extends AbstractProxy {
         Response response = restClient.post(DEPARTMENTS, serializer.serialize(payload));
         if (!response.isSuccessful()) {
             logger.error("Failed to create department. Status: {}", response.code());
+            response.close();
             throw new IOException("Department creation failed: " + response.code());
         }
 
-        return parse(response);
+        return project("createDepartment", parse(response));
     }
 
 
@@ -75,9 +76,10 @@ public class DepartmentProxy extends AbstractProxy {
         Response response = restClient.put(DEPARTMENTS + '/' + departmentId, jsonBody);
         if (!response.isSuccessful()) {
             logger.error("Failed to update department. Status: {}", response.code());
+            response.close();
             throw new IOException("Failed to update department: " + response.code());
         }
-        return parse(response);
+        return project("updateDepartment", parse(response));
     }
 
     /**
@@ -93,9 +95,10 @@ public class DepartmentProxy extends AbstractProxy {
         Response response = restClient.get(DEPARTMENTS + '/' + departmentId);
         if (!response.isSuccessful()) {
             logger.error("Failed to get department. Status: {}", response.code());
+            response.close();
             throw new IOException("Failed to get department: " + response.code());
         }
-        return parse(response);
+        return project("getDepartment", parse(response));
     }
 
     /**
@@ -111,8 +114,10 @@ public class DepartmentProxy extends AbstractProxy {
         Response response = restClient.delete(DEPARTMENTS + '/' + departmentId);
         if (!response.isSuccessful()) {
             logger.error("Failed to delete department. Status: {}", response.code());
+            response.close();
             throw new IOException("Failed to delete department: " + response.code());
         }
+        response.close();
 
         Map<String, Object> result = new HashMap<>();
         result.put("status", "success");
@@ -133,8 +138,9 @@ public class DepartmentProxy extends AbstractProxy {
         Response response = restClient.get(DEPARTMENTS);
         if (!response.isSuccessful()) {
             logger.error("Failed to list departments. Status: {}", response.code());
+            response.close();
             throw new IOException("Failed to list departments: " + response.code());
         }
-        return parse(response);
+        return project("listDepartments", parse(response));
     }
 }
\ No newline at end of file
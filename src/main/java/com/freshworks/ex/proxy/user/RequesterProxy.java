@@ -101,6 +101,7 @@ public class RequesterProxy extends AbstractProxy {
         if (!response.isSuccessful()) {
             return handleResponse(response, "forgetRequester");
         }
+        response.close();
         Map<String, Object> result = Map.of("status", "success", "message", "Requester forgotten successfully",
                 "requester_id", id);
         return serializer.parse(serializer.serialize(result));
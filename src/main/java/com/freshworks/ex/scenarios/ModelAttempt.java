@@ -0,0 +1,23 @@
+package com.freshworks.ex.scenarios;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * One run of a testcase on a model tier.
+ *
+ * @param tier           Name of the tier
+ * @param model          Model of the tier
+ * @param passed         Whether the run reported TESTCASE_STATUS: PASSED
+ * @param durationMillis Wall time of the run
+ * @param inputTokens    Input tokens of the run
+ * @param outputTokens   Output tokens of the run
+ * @param cost           Cost of the run in dollars, from the tier prices
+ */
+public record ModelAttempt(@JsonProperty("tier") String tier,
+                           @JsonProperty("model") String model,
+                           @JsonProperty("passed") boolean passed,
+                           @JsonProperty("duration_millis") long durationMillis,
+                           @JsonProperty("input_tokens") int inputTokens,
+                           @JsonProperty("output_tokens") int outputTokens,
+                           @JsonProperty("cost") double cost) {
+}
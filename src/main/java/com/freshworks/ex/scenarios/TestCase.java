@@ -3,6 +3,9 @@ package com.freshworks.ex.scenarios;
 import lombok.Data;
 import lombok.Getter;
 
+import java.util.ArrayList;
+import java.util.List;
+
 // Simple POJO class for test case
 @Getter
 @Data
@@ -14,6 +17,12 @@ public class TestCase {
     private long duration;
     private int inputTokens;
     private int outputTokens;
+    private boolean replayed;
+    private int cacheHits;
+    private int cacheMisses;
+    private int savedInputTokens;
+    private String failureReason;
+    private List<ModelAttempt> attempts = new ArrayList<>();
 
     public TestCase(String id, String key, String steps) {
         this.id = id;
@@ -8,6 +8,7 @@ import java.util.Map;
 
 import org.jetbrains.annotations.NotNull;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.freshworks.ex.utils.Serializer;
@@ -29,10 +30,17 @@ public class TestCaseLoader {
             "include", "custom_field,test_case");
 
     public List<TestCase> fetch() throws IOException {
-        Response response = client.get("/FS/test_cases" + "?" + queryParams());
-        String payload = response.body().string();
-        JsonNode responseJson = serializer.parse(payload);
-        return parse(responseJson);
+        try (Response response = client.get("/FS/test_cases" + "?" + queryParams())) {
+            return parse(serializer.parse(response.body().byteStream()));
+        }
+    }
+
+    /**
+     * @param payload Body of a Freshrelease testcase list response
+     * @return The testcases in the response
+     */
+    List<TestCase> parse(String payload) throws JsonProcessingException {
+        return parse(serializer.parse(payload));
     }
 
     @NotNull
@@ -1,6 +1,8 @@
 package com.freshworks.ex.utils;
 
+import com.freshworks.ex.scenarios.ModelAttempt;
 import com.freshworks.ex.scenarios.TestCase;
+import com.freshworks.ex.utils.clients.EndpointMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -8,7 +10,9 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Utility class for generating HTML test execution reports.
@@ -57,6 +61,8 @@ public class HtmlReportGenerator {
         html.append(buildHtmlHeader());
         html.append(buildReportTitle());
         html.append(buildExecutionSummary(totalTests, passedTests, failedTests, passRate, totalDuration));
+        html.append(buildModelTierSummary(testCases));
+        html.append(buildHttpLatencySummary(EndpointMetrics.snapshot()));
         html.append(buildTestCaseTable(testCases));
         html.append(buildHtmlFooter());
 
@@ -369,6 +375,124 @@ public class HtmlReportGenerator {
                 """, totalTests, passedTests, failedTests, passRate, durationDisplay);
     }
 
+    private static String buildModelTierSummary(List<TestCase> testCases) {
+        // Attempts, passed, duration (ms), input tokens, output tokens per tier
+        Map<String, long[]> totals = new LinkedHashMap<>();
+        Map<String, Double> costs = new LinkedHashMap<>();
+        Map<String, String> models = new LinkedHashMap<>();
+        for (TestCase testCase : testCases) {
+            for (ModelAttempt attempt : testCase.getAttempts()) {
+                long[] total = totals.computeIfAbsent(attempt.tier(), tier -> new long[5]);
+                total[0]++;
+                total[1] += attempt.passed() ? 1 : 0;
+                total[2] += attempt.durationMillis();
+                total[3] += attempt.inputTokens();
+                total[4] += attempt.outputTokens();
+                costs.merge(attempt.tier(), attempt.cost(), Double::sum);
+                models.putIfAbsent(attempt.tier(), attempt.model());
+            }
+        }
+        if (totals.isEmpty()) {
+            return "";
+        }
+
+        StringBuilder table = new StringBuilder();
+        table.append("""
+                <div class="content">
+                    <h2>Model Tiers</h2>
+                    <div class="table-container">
+                        <table>
+                            <thead>
+                                <tr>
+                                    <th>Tier</th>
+                                    <th>Model</th>
+                                    <th>Runs</th>
+                                    <th>Passed</th>
+                                    <th>Avg Duration (s)</th>
+                                    <th>Token(input)</th>
+                                    <th>Token(output)</th>
+                                    <th>Cost ($)</th>
+                                </tr>
+                            </thead>
+                            <tbody>
+                """);
+        totals.forEach((tier, total) -> table.append(String.format("""
+                                <tr>
+                                    <td><strong>%s</strong></td>
+                                    <td>%s</td>
+                                    <td>%d</td>
+                                    <td>%d</td>
+                                    <td>%.1f</td>
+                                    <td>%d</td>
+                                    <td>%d</td>
+                                    <td>%.4f</td>
+                                </tr>
+                """, escapeHtml(tier), escapeHtml(models.get(tier)), total[0], total[1],
+                total[2] / 1000.0 / total[0], total[3], total[4], costs.get(tier))));
+        table.append("""
+                            </tbody>
+                        </table>
+                    </div>
+                </div>
+                """);
+        return table.toString();
+    }
+
+    /**
+     * Latency of the Freshservice endpoints called in this run, to tell slow endpoints from slow LLM turns.
+     * Empty for reports built from shard results.
+     */
+    private static String buildHttpLatencySummary(List<EndpointMetrics.EndpointLatency> endpoints) {
+        if (endpoints.isEmpty()) {
+            return "";
+        }
+
+        StringBuilder table = new StringBuilder();
+        table.append("""
+                <div class="content">
+                    <h2>HTTP Latency</h2>
+                    <div class="table-container">
+                        <table>
+                            <thead>
+                                <tr>
+                                    <th>Endpoint</th>
+                                    <th>Calls</th>
+                                    <th>Failed</th>
+                                    <th>p50 (ms)</th>
+                                    <th>p95 (ms)</th>
+                                    <th>p99 (ms)</th>
+                                    <th>Max (ms)</th>
+                                    <th>TTFB p50 (ms)</th>
+                                    <th>Connect p50 (ms)</th>
+                                </tr>
+                            </thead>
+                            <tbody>
+                """);
+        endpoints.forEach(endpoint -> table.append(String.format("""
+                                <tr>
+                                    <td><strong>%s</strong></td>
+                                    <td>%d</td>
+                                    <td>%d</td>
+                                    <td>%.1f</td>
+                                    <td>%.1f</td>
+                                    <td>%.1f</td>
+                                    <td>%.1f</td>
+                                    <td>%.1f</td>
+                                    <td>%s</td>
+                                </tr>
+                """, escapeHtml(endpoint.endpoint()), endpoint.calls(), endpoint.failed(), endpoint.total().p50Millis(),
+                endpoint.total().p95Millis(), endpoint.total().p99Millis(), endpoint.total().maxMillis(),
+                endpoint.ttfb().p50Millis(), endpoint.connect().count() == 0 ? "-"
+                        : String.format("%.1f", endpoint.connect().p50Millis()))));
+        table.append("""
+                            </tbody>
+                        </table>
+                    </div>
+                </div>
+                """);
+        return table.toString();
+    }
+
     private static String buildTestCaseTable(List<TestCase> testCases) {
         StringBuilder table = new StringBuilder();
         table.append("""
@@ -385,6 +509,8 @@ public class HtmlReportGenerator {
                                     <th>Steps</th>
                                     <th>Token(input)</th>
                                     <th>Token(output)</th>
+                                    <th>Cache(hit/miss)</th>
+                                    <th>Token(saved)</th>
                                 </tr>
                             </thead>
                             <tbody>
@@ -394,6 +520,16 @@ public class HtmlReportGenerator {
             TestCase testCase = testCases.get(i);
             String statusClass = testCase.isStatus() ? "status-passed" : "status-failed";
             String statusText = testCase.isStatus() ? "✅ Passed" : "❌ Failed";
+            if (testCase.isReplayed()) {
+                statusText += " (replayed without the LLM)";
+            }
+            if (testCase.getAttempts().size() > 1) {
+                statusText += "<br><small>" + String.join(" &rarr; ", testCase.getAttempts().stream()
+                        .map(attempt -> escapeHtml(attempt.tier())).toList()) + "</small>";
+            }
+            if (testCase.getFailureReason() != null) {
+                statusText += "<br><small>" + escapeHtml(testCase.getFailureReason()) + "</small>";
+            }
             String steps = testCase.getSteps(); // Keep HTML content as is
             String testKeyUrl = "https://freshworks.freshrelease.com/ws/FS/test-cases/" + testCase.getKey();
 
@@ -416,6 +552,8 @@ public class HtmlReportGenerator {
                                 </td>
                                 <td>%d</td>
                                 <td>%d</td>
+                                <td>%d / %d</td>
+                                <td>%d</td>
                             </tr>
                             """,
                     i + 1, // Sequence number starting from 1
@@ -426,7 +564,8 @@ public class HtmlReportGenerator {
                     testCase.getDuration(),
                     i, steps,
                     i, steps,
-                    i, testCase.getInputTokens(), testCase.getOutputTokens()));
+                    i, testCase.getInputTokens(), testCase.getOutputTokens(),
+                    testCase.getCacheHits(), testCase.getCacheMisses(), testCase.getSavedInputTokens()));
         }
 
         table.append("""
@@ -1,9 +1,13 @@
 package com.freshworks.ex.utils;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 /**
  * Utility class for JSON serialization and deserialization operations.
  * This class provides methods to convert between JSON strings and Java objects
@@ -34,6 +38,42 @@ public class Serializer {
         return objectMapper.readTree(json);
     }
 
+    /**
+     * Parses JSON read from a stream, without first copying the content into a string.
+     *
+     * @param json The stream to read, not closed
+     * @return JsonNode representing the parsed JSON structure
+     * @throws IOException if the stream cannot be read or the JSON is malformed
+     */
+    public JsonNode parse(InputStream json) throws IOException {
+        return objectMapper.readTree(json);
+    }
+
+    /**
+     * Creates a streaming parser for JSON read from a stream, to process large content token by token.
+     * Values can still be read as trees with {@link JsonParser#readValueAsTree()}.
+     *
+     * @param json The stream to read, closed with the parser
+     * @return A parser positioned before the first token
+     * @throws IOException if the stream cannot be read
+     */
+    public JsonParser parser(InputStream json) throws IOException {
+        return objectMapper.createParser(json);
+    }
+
+    /**
+     * Deserializes a JSON string into an instance of the given type.
+     *
+     * @param json The JSON string to read
+     * @param type The target class
+     * @param <T>  The target type
+     * @return The deserialized object
+     * @throws JsonProcessingException if the JSON string is malformed or does not match the type
+     */
+    public <T> T deserialize(String json, Class<T> type) throws JsonProcessingException {
+        return objectMapper.readValue(json, type);
+    }
+
     /**
      * Serializes a Java object into a JSON string.
      *
@@ -0,0 +1,20 @@
+package com.freshworks.ex.utils;
+
+import dev.langchain4j.model.TokenCountEstimator;
+import dev.langchain4j.model.openai.OpenAiChatModelName;
+import dev.langchain4j.model.openai.OpenAiTokenCountEstimator;
+
+/**
+ * Estimates how many tokens a piece of text costs when it is sent to the model.
+ * Uses the GPT-4.1 tokenizer, which is the model family configured in ScriptRunner.
+ */
+public class TokenCounter {
+    private static final TokenCountEstimator estimator = new OpenAiTokenCountEstimator(OpenAiChatModelName.GPT_4_1);
+
+    public static int count(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        return estimator.estimateTokenCountInText(text);
+    }
+}
@@ -0,0 +1,49 @@
+package com.freshworks.ex.utils.clients;
+
+/**
+ * Base URLs of the Freshservice and Freshrelease hosts.
+ * FS_BASE_URL and FR_BASE_URL point the clients at another host, e.g. a local
+ * {@code MockFreshserviceServer}. They are read as system properties first so a
+ * harness running in the same JVM can set them, then as environment variables.
+ */
+public final class BaseUrls {
+    public static final String FS_BASE_URL = "FS_BASE_URL";
+    public static final String FR_BASE_URL = "FR_BASE_URL";
+
+    private static final String FRESHRELEASE = "https://freshworks.freshrelease.com";
+
+    private BaseUrls() {
+    }
+
+    /**
+     * @param domain The Freshservice domain (e.g., "freshworks299")
+     * @return Base URL of the Freshservice host, without the /api/v2 prefix
+     */
+    public static String freshservice(String domain) {
+        return override(FS_BASE_URL, "https://" + domain + ".freshcmdb.com");
+    }
+
+    /**
+     * @return Base URL of the Freshrelease host
+     */
+    public static String freshrelease() {
+        return override(FR_BASE_URL, FRESHRELEASE);
+    }
+
+    /**
+     * @return Whether the Freshservice host was overridden
+     */
+    public static boolean isFreshserviceOverridden() {
+        return lookup(FS_BASE_URL) != null;
+    }
+
+    private static String override(String name, String defaultUrl) {
+        String value = lookup(name);
+        return value == null ? defaultUrl : value.replaceAll("/+$", "");
+    }
+
+    private static String lookup(String name) {
+        String value = System.getProperty(name, System.getenv(name));
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
@@ -0,0 +1,64 @@
+package com.freshworks.ex.utils.clients;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens HTTPS connections to the hosts a run talks to before the first real request needs them.
+ * This resolves DNS and completes the TLS handshakes up front, and leaves the connections in
+ * the shared {@link HttpClients} pool for the first requests.
+ */
+public final class ConnectionWarmer {
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionWarmer.class);
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private ConnectionWarmer() {
+    }
+
+    /**
+     * Sends a HEAD request to every URL at the same time and waits for all of them.
+     * The status of the responses does not matter, failures are only logged.
+     *
+     * @param urls URLs of the hosts to warm
+     */
+    public static void warm(List<String> urls) {
+        // Warms the shared pool, so the connections are reused by the REST clients
+        OkHttpClient client = HttpClients.derive()
+                .callTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .build();
+        CountDownLatch done = new CountDownLatch(urls.size());
+        for (String url : urls) {
+            long start = System.currentTimeMillis();
+            client.newCall(new Request.Builder().url(url).head().build()).enqueue(new Callback() {
+                @Override
+                public void onResponse(@NotNull Call call, @NotNull Response response) {
+                    response.close();
+                    logger.debug("Warmed {} in {} ms", url, System.currentTimeMillis() - start);
+                    done.countDown();
+                }
+
+                @Override
+                public void onFailure(@NotNull Call call, @NotNull IOException e) {
+                    logger.debug("Failed to warm {}: {}", url, e.getMessage());
+                    done.countDown();
+                }
+            });
+        }
+        try {
+            done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.freshworks.ex.utils.clients;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.freshworks.ex.utils.Serializer;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.HttpUrl;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency of the REST calls per endpoint, e.g. "GET /api/v2/tickets/{id}" with numeric path
+ * segments collapsed. DNS lookup, connect, TLS handshake, time to first byte and total time
+ * of every call are recorded by an OkHttp event listener into lock-free histograms with
+ * logarithmic buckets, which keep percentiles within about 20% of the exact value.
+ * Calls answered without touching the network, by the {@link ResponseCache} or
+ * {@link SingleFlight}, are not recorded.
+ */
+public final class EndpointMetrics {
+    private static final Logger logger = LoggerFactory.getLogger(EndpointMetrics.class);
+    private static final Serializer serializer = new Serializer();
+    private static final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    private EndpointMetrics() {
+    }
+
+    /**
+     * Event listener factory of the REST clients.
+     *
+     * @param call The call to time
+     * @return A listener recording the phases of the call
+     */
+    public static EventListener listener(Call call) {
+        return new CallTimer();
+    }
+
+    /**
+     * @return Latency of every endpoint called so far, the endpoints with the most total time first
+     */
+    public static List<EndpointLatency> snapshot() {
+        return endpoints.entrySet().stream()
+                .map(entry -> entry.getValue().snapshot(entry.getKey()))
+                .sorted(Comparator.comparingDouble((EndpointLatency latency) ->
+                        latency.total().meanMillis() * latency.total().count()).reversed())
+                .toList();
+    }
+
+    /**
+     * Writes the latency of every endpoint as JSON.
+     *
+     * @param path The file to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path path) throws IOException {
+        Path tmp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+        Files.writeString(tmp, serializer.serialize(snapshot()));
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logger.info("HTTP latency of {} endpoints written to {}", endpoints.size(), path);
+    }
+
+    /**
+     * @return Method and path of the request with numeric path segments replaced by "{id}"
+     */
+    static String endpoint(String method, HttpUrl url) {
+        StringBuilder endpoint = new StringBuilder(method).append(' ');
+        for (String segment : url.encodedPathSegments()) {
+            if (!segment.isEmpty()) {
+                endpoint.append('/').append(Character.isDigit(segment.charAt(0)) ? "{id}" : segment);
+            }
+        }
+        return endpoint.charAt(endpoint.length() - 1) == ' ' ? endpoint.append('/').toString() : endpoint.toString();
+    }
+
+    /**
+     * @param endpoint Method and normalized path
+     * @param calls    Calls recorded
+     * @param failed   Calls that failed without a response
+     * @param dns      DNS lookups
+     * @param connect  New connections, including the TLS handshake
+     * @param tls      TLS handshakes
+     * @param ttfb     Time from sending the request headers to receiving the response headers
+     * @param total    Time of the whole call, including retries and rate limit waits
+     */
+    public record EndpointLatency(@JsonProperty("endpoint") String endpoint,
+                                  @JsonProperty("calls") long calls,
+                                  @JsonProperty("failed") long failed,
+                                  @JsonProperty("dns") Latency dns,
+                                  @JsonProperty("connect") Latency connect,
+                                  @JsonProperty("tls") Latency tls,
+                                  @JsonProperty("ttfb") Latency ttfb,
+                                  @JsonProperty("total") Latency total) {
+    }
+
+    public record Latency(@JsonProperty("count") long count,
+                          @JsonProperty("mean_ms") double meanMillis,
+                          @JsonProperty("p50_ms") double p50Millis,
+                          @JsonProperty("p95_ms") double p95Millis,
+                          @JsonProperty("p99_ms") double p99Millis,
+                          @JsonProperty("max_ms") double maxMillis) {
+    }
+
+    private static class Endpoint {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final Histogram dns = new Histogram();
+        private final Histogram connect = new Histogram();
+        private final Histogram tls = new Histogram();
+        private final Histogram ttfb = new Histogram();
+        private final Histogram total = new Histogram();
+
+        EndpointLatency snapshot(String endpoint) {
+            return new EndpointLatency(endpoint, calls.sum(), failed.sum(), dns.snapshot(), connect.snapshot(),
+                    tls.snapshot(), ttfb.snapshot(), total.snapshot());
+        }
+    }
+
+    /**
+     * Histogram of durations in microseconds. Every power of two is split into four buckets.
+     */
+    static class Histogram {
+        private static final int BUCKETS = 160;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        void record(long nanos) {
+            long micros = Math.max(nanos / 1000, 0);
+            counts.incrementAndGet(index(micros));
+            count.increment();
+            sum.add(micros);
+            max.accumulateAndGet(micros, Math::max);
+        }
+
+        Latency snapshot() {
+            long total = count.sum();
+            if (total == 0) {
+                return new Latency(0, 0, 0, 0, 0, 0);
+            }
+            return new Latency(total, Math.round((double) sum.sum() / total) / 1000.0, percentile(total, 50), percentile(total, 95),
+                    percentile(total, 99), max.get() / 1000.0);
+        }
+
+        /**
+         * @return Upper bound of the bucket holding the nearest-rank percentile, at most the maximum
+         */
+        private double percentile(long total, int percentile) {
+            long rank = Math.max((long) Math.ceil(percentile / 100.0 * total), 1);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts.get(i);
+                if (seen >= rank) {
+                    return Math.min(upperBound(i), max.get()) / 1000.0;
+                }
+            }
+            return max.get() / 1000.0;
+        }
+
+        static int index(long micros) {
+            if (micros < 4) {
+                return (int) micros;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(micros);
+            int sub = (int) ((micros >> (exponent - 2)) & 3);
+            return Math.min(exponent * 4 + sub - 4, BUCKETS - 1);
+        }
+
+        static long upperBound(int index) {
+            if (index < 4) {
+                return index;
+            }
+            int exponent = index / 4 + 1;
+            return ((4L + index % 4 + 1) << (exponent - 2)) - 1;
+        }
+    }
+
+    /**
+     * Times the phases of one call. With retries the phases of the last attempt are kept and
+     * the total covers all attempts.
+     */
+    private static class CallTimer extends HttpClients.PoolListener {
+        private String endpoint;
+        private boolean network;
+        private long callStart;
+        private long dnsStart;
+        private long dnsNanos = -1;
+        private long connectStart;
+        private long connectNanos = -1;
+        private long tlsStart;
+        private long tlsNanos = -1;
+        private long requestStart;
+        private long ttfbNanos = -1;
+
+        @Override
+        public void callStart(@NotNull Call call) {
+            Request request = call.request();
+            endpoint = endpoint(request.method(), request.url());
+            callStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsStart(@NotNull Call call, @NotNull String domainName) {
+            network = true;
+            dnsStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsEnd(@NotNull Call call, @NotNull String domainName, @NotNull List<InetAddress> addresses) {
+            dnsNanos = System.nanoTime() - dnsStart;
+        }
+
+        @Override
+        public void connectStart(@NotNull Call call, @NotNull InetSocketAddress address, @NotNull Proxy proxy) {
+            super.connectStart(call, address, proxy);
+            network = true;
+            connectStart = System.nanoTime();
+        }
+
+        @Override
+        public void secureConnectStart(@NotNull Call call) {
+            tlsStart = System.nanoTime();
+        }
+
+        @Override
+        public void secureConnectEnd(@NotNull Call call, @Nullable Handshake handshake) {
+            tlsNanos = System.nanoTime() - tlsStart;
+        }
+
+        @Override
+        public void connectEnd(@NotNull Call call, @NotNull InetSocketAddress address, @NotNull Proxy proxy,
+                               @Nullable Protocol protocol) {
+            connectNanos = System.nanoTime() - connectStart;
+        }
+
+        @Override
+        public void connectionAcquired(@NotNull Call call, @NotNull Connection connection) {
+            super.connectionAcquired(call, connection);
+            network = true;
+        }
+
+        @Override
+        public void requestHeadersStart(@NotNull Call call) {
+            requestStart = System.nanoTime();
+        }
+
+        @Override
+        public void responseHeadersStart(@NotNull Call call) {
+            ttfbNanos = System.nanoTime() - requestStart;
+        }
+
+        @Override
+        public void callEnd(@NotNull Call call) {
+            record(false);
+        }
+
+        @Override
+        public void callFailed(@NotNull Call call, @NotNull IOException ioe) {
+            record(true);
+        }
+
+        private void record(boolean failed) {
+            if (!network || endpoint == null) {
+                return;
+            }
+            Endpoint metrics = endpoints.computeIfAbsent(endpoint, key -> new Endpoint());
+            metrics.calls.increment();
+            if (failed) {
+                metrics.failed.increment();
+            }
+            if (dnsNanos >= 0) {
+                metrics.dns.record(dnsNanos);
+            }
+            if (connectNanos >= 0) {
+                metrics.connect.record(connectNanos);
+            }
+            if (tlsNanos >= 0) {
+                metrics.tls.record(tlsNanos);
+            }
+            if (ttfbNanos >= 0) {
+                metrics.ttfb.record(ttfbNanos);
+            }
+            metrics.total.record(System.nanoTime() - callStart);
+        }
+    }
+}
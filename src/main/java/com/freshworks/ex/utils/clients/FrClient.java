@@ -7,13 +7,11 @@ public class FrClient extends RestClient {
 
     private static final Logger logger = LoggerFactory.getLogger(FrClient.class);
 
-    private static final String domain = "https://freshworks.freshrelease.com";
-
     /**
      * Constructs a new RestClient instance for a specific Freshrelease domain.
      */
     public FrClient() {
-        super(domain, System.getenv("FR_API_KEY"));
+        super(BaseUrls.freshrelease(), System.getenv("FR_API_KEY"));
     }
 
 
@@ -13,7 +13,7 @@ public class FsClient extends RestClient {
      * @param domain The Freshservice domain (e.g., "freshworks299")
      */
     public FsClient(String domain) {
-        super("https://" + domain + ".freshcmdb.com/api/v2", System.getenv("FS_API_KEY"));
+        super(BaseUrls.freshservice(domain) + "/api/v2", System.getenv("FS_API_KEY"));
     }
 
     @Override
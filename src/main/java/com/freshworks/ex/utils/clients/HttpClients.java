@@ -0,0 +1,132 @@
+package com.freshworks.ex.utils.clients;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.EventListener;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.jetbrains.annotations.NotNull;
+
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The OkHttp client shared by all REST clients of a run. Clients derived from it with
+ * {@link #derive()} share its connection pool, dispatcher and threads, so every proxy
+ * talking to the same host reuses the same connections.
+ * <p>
+ * Tuned with SP_HTTP_* settings, read as system properties first and then as environment
+ * variables. The dispatcher limits apply to asynchronous calls.
+ */
+public final class HttpClients {
+    private static final ConnectionPool pool = new ConnectionPool(
+            setting("SP_HTTP_MAX_IDLE_CONNECTIONS", 16), setting("SP_HTTP_KEEP_ALIVE", 300), TimeUnit.SECONDS);
+    private static final AtomicLong acquired = new AtomicLong();
+    private static final AtomicLong opened = new AtomicLong();
+    private static final OkHttpClient shared = new OkHttpClient.Builder()
+            .connectionPool(pool)
+            .dispatcher(dispatcher())
+            .protocols(setting("SP_HTTP2", 1) != 0 ? List.of(Protocol.HTTP_2, Protocol.HTTP_1_1)
+                    : List.of(Protocol.HTTP_1_1))
+            .connectTimeout(setting("SP_HTTP_CONNECT_TIMEOUT", 10), TimeUnit.SECONDS)
+            .readTimeout(setting("SP_HTTP_READ_TIMEOUT", 30), TimeUnit.SECONDS)
+            .writeTimeout(setting("SP_HTTP_WRITE_TIMEOUT", 30), TimeUnit.SECONDS)
+            .callTimeout(setting("SP_HTTP_CALL_TIMEOUT", 0), TimeUnit.SECONDS)
+            .eventListener(new PoolListener())
+            .build();
+
+    private HttpClients() {
+    }
+
+    /**
+     * @return A builder for a client sharing the pool and dispatcher of the shared client,
+     * e.g. to set a different timeout
+     */
+    public static OkHttpClient.Builder derive() {
+        return shared.newBuilder();
+    }
+
+    /**
+     * @return Connection reuse and pool occupancy since the JVM was started
+     */
+    public static Stats stats() {
+        return new Stats(acquired.get(), opened.get(), pool.connectionCount(),
+                pool.idleConnectionCount());
+    }
+
+    private static Dispatcher dispatcher() {
+        // Same as the OkHttp default executor, with daemon threads so an idle dispatcher never keeps the JVM alive
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "scriptpilot-http-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Dispatcher dispatcher = new Dispatcher(executor);
+        dispatcher.setMaxRequests(setting("SP_HTTP_MAX_REQUESTS", 64));
+        dispatcher.setMaxRequestsPerHost(setting("SP_HTTP_MAX_REQUESTS_PER_HOST", 16));
+        return dispatcher;
+    }
+
+    /**
+     * @return The integer setting, true and false are read as 1 and 0
+     */
+    static int setting(String name, int defaultValue) {
+        String value = System.getProperty(name, System.getenv(name));
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        return switch (value.trim()) {
+            case "true" -> 1;
+            case "false" -> 0;
+            default -> Integer.parseInt(value.trim());
+        };
+    }
+
+    /**
+     * @param acquired        Connections handed to calls
+     * @param opened          Connections opened because the pool had none to reuse
+     * @param connections     Connections in the pool
+     * @param idleConnections Connections in the pool not used by a call
+     */
+    public record Stats(long acquired, long opened, int connections, int idleConnections) {
+        /**
+         * @return Share of calls that reused a pooled connection, 0 to 1
+         */
+        public double hitRate() {
+            return acquired == 0 ? 0 : (double) Math.max(acquired - opened, 0) / acquired;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d connections acquired, %.0f%% reused, %d pooled (%d idle)", acquired,
+                    hitRate() * 100, connections, idleConnections);
+        }
+    }
+
+    /**
+     * Counts the connections acquired and opened for {@link #stats()}. Listeners of derived
+     * clients extend it to keep the counts.
+     */
+    static class PoolListener extends EventListener {
+        @Override
+        public void connectStart(@NotNull Call call, @NotNull InetSocketAddress address, @NotNull Proxy proxy) {
+            opened.incrementAndGet();
+        }
+
+        @Override
+        public void connectionAcquired(@NotNull Call call, @NotNull Connection connection) {
+            acquired.incrementAndGet();
+        }
+    }
+}
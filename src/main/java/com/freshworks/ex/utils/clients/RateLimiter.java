@@ -0,0 +1,205 @@
+package com.freshworks.ex.utils.clients;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Paces the requests to each tenant (host) so they stay below its per-minute API limit.
+ * Every tenant has one token bucket shared by all REST clients. It is sized from the
+ * X-RateLimit-Total header and refilled evenly over the minute, X-RateLimit-Remaining pulls it
+ * down when other clients use the same account, and a Retry-After answer pauses the tenant.
+ * Requests wait once the bucket falls to the reserve, so they are delayed before the tenant
+ * runs out instead of being rejected after.
+ * <p>
+ * Tenants are not paced until they report their limit, unless SP_HTTP_RATE_LIMIT sets one
+ * per minute up front. SP_HTTP_RATE_LIMIT_RESERVE is the reserve in percent of the limit.
+ */
+public final class RateLimiter implements Interceptor {
+    private static final Logger logger = LoggerFactory.getLogger(RateLimiter.class);
+
+    private static final String TOTAL = "X-RateLimit-Total";
+    private static final String REMAINING = "X-RateLimit-Remaining";
+    private static final String RETRY_AFTER = "Retry-After";
+    private static final long POLL_MILLIS = 100;
+
+    private static final int defaultLimit = HttpClients.setting("SP_HTTP_RATE_LIMIT", 0);
+    private static final double reserveRatio = HttpClients.setting("SP_HTTP_RATE_LIMIT_RESERVE", 10) / 100.0;
+    private static final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private static final AtomicLong throttled = new AtomicLong();
+    private static final AtomicLong waitMillis = new AtomicLong();
+    private static final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * @return Throttled requests and time spent waiting since the JVM was started
+     */
+    public static Stats stats() {
+        return new Stats(throttled.get(), waitMillis.get(), rejected.get());
+    }
+
+    @NotNull
+    @Override
+    public Response intercept(@NotNull Chain chain) throws IOException {
+        Request request = chain.request();
+        Bucket bucket = buckets.computeIfAbsent(request.url().host(), host -> new Bucket(defaultLimit));
+        long wait = bucket.reserve();
+        if (wait > 0) {
+            throttled.incrementAndGet();
+            waitMillis.addAndGet(wait);
+            logger.debug("Throttling {} request to {} for {} ms", request.method(), request.url().host(), wait);
+            await(chain, wait);
+        }
+
+        Response response = chain.proceed(request);
+        long retryAfter = response.code() == 429 || response.code() == 503 ? retryAfterMillis(response) : 0;
+        if (response.code() == 429) {
+            rejected.incrementAndGet();
+            logger.warn("Rate limit of {} exceeded, retry after {} ms", request.url().host(), retryAfter);
+        }
+        bucket.update(header(response, TOTAL), header(response, REMAINING), retryAfter);
+        return response;
+    }
+
+    /**
+     * Sleeps in short slices so a cancelled call or an expired deadline stops the wait.
+     */
+    static void await(Chain chain, long millis) throws IOException {
+        long until = System.currentTimeMillis() + millis;
+        try {
+            for (long left = millis; left > 0; left = until - System.currentTimeMillis()) {
+                if (chain.call().isCanceled()) {
+                    throw new IOException("Canceled");
+                }
+                Thread.sleep(Math.min(left, POLL_MILLIS));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the rate limit");
+        }
+    }
+
+    private static long header(Response response, String name) {
+        String value = response.header(name);
+        try {
+            return value == null ? -1 : Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    static long retryAfterMillis(Response response) {
+        return retryAfterMillis(response.header(RETRY_AFTER));
+    }
+
+    /**
+     * @param value Value of a Retry-After header, in seconds or as an HTTP date
+     * @return The pause requested, 0 if none was given or the value cannot be parsed
+     */
+    public static long retryAfterMillis(String value) {
+        if (value == null || value.isBlank()) {
+            return 0;
+        }
+        try {
+            return Math.max(Long.parseLong(value.trim()) * 1000, 0);
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime date = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Math.max(date.toInstant().toEpochMilli() - System.currentTimeMillis(), 0);
+            } catch (DateTimeParseException ignored) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * @param throttled  Requests delayed to stay below a rate limit
+     * @param waitMillis Time these requests waited in total
+     * @param rejected   Requests answered with 429 despite the pacing
+     */
+    public record Stats(long throttled, long waitMillis, long rejected) {
+        @Override
+        public String toString() {
+            return String.format("%d requests throttled for %d ms in total, %d rejected with 429", throttled,
+                    waitMillis, rejected);
+        }
+    }
+
+    /**
+     * Token bucket of one tenant. Tokens are reserved up front, so the bucket goes negative while
+     * requests are queued and every request waits for its own share of the refill.
+     */
+    private static class Bucket {
+        private double limit;
+        private double tokens;
+        private long refilledAt = System.currentTimeMillis();
+        private long pausedUntil;
+
+        Bucket(int limit) {
+            this.limit = limit;
+            this.tokens = limit;
+        }
+
+        /**
+         * Takes a token.
+         *
+         * @return Milliseconds to wait before the request may be sent
+         */
+        synchronized long reserve() {
+            long now = System.currentTimeMillis();
+            refill(now);
+            long wait = Math.max(pausedUntil - now, 0);
+            if (limit > 0) {
+                tokens--;
+                double reserve = limit * reserveRatio;
+                if (tokens < reserve) {
+                    wait = Math.max(wait, (long) Math.ceil((reserve - tokens) * 60_000 / limit));
+                }
+            }
+            return wait;
+        }
+
+        /**
+         * Corrects the bucket with the rate limit headers of a response.
+         *
+         * @param total      Requests allowed per minute, -1 if not reported
+         * @param remaining  Requests left in the current minute, -1 if not reported
+         * @param retryAfter Pause requested by the tenant in milliseconds, 0 if none
+         */
+        synchronized void update(long total, long remaining, long retryAfter) {
+            long now = System.currentTimeMillis();
+            refill(now);
+            if (total > 0 && total != limit) {
+                if (limit == 0) {
+                    tokens = total;
+                }
+                limit = total;
+            }
+            if (remaining >= 0 && limit > 0) {
+                tokens = Math.min(tokens, remaining);
+            }
+            if (retryAfter > 0) {
+                pausedUntil = Math.max(pausedUntil, now + retryAfter);
+                tokens = Math.min(tokens, 0);
+            }
+        }
+
+        private void refill(long now) {
+            if (limit > 0) {
+                tokens = Math.min(limit, tokens + (now - refilledAt) * limit / 60_000);
+            }
+            refilledAt = now;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.freshworks.ex.utils.clients;
+
+import okhttp3.Call;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Groups the HTTP calls made on behalf of one testcase so they can be aborted together.
+ * A scope is bound to the current thread with {@link #call(Supplier)}; every {@link RestClient}
+ * call made inside registers itself, and {@link #cancel()} aborts the ones still in flight.
+ * Calls started after the scope was cancelled fail immediately.
+ * A {@link #child()} scope can be cancelled on its own and is cancelled with its parent.
+ */
+public final class RequestScope {
+    private static final ThreadLocal<RequestScope> current = new ThreadLocal<>();
+
+    private final Set<Call> calls = ConcurrentHashMap.newKeySet();
+    private final Set<RequestScope> children = ConcurrentHashMap.newKeySet();
+    private volatile boolean cancelled;
+
+    /**
+     * Runs the action with this scope bound to the current thread.
+     *
+     * @param action The action making HTTP calls
+     * @param <T>    Result type of the action
+     * @return The result of the action
+     */
+    public <T> T call(Supplier<T> action) {
+        RequestScope previous = current.get();
+        current.set(this);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                current.remove();
+            } else {
+                current.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Aborts all calls in flight and makes later calls in this scope fail.
+     */
+    public void cancel() {
+        cancelled = true;
+        calls.forEach(Call::cancel);
+        children.forEach(RequestScope::cancel);
+    }
+
+    /**
+     * @return A new scope whose calls are also aborted when this scope is cancelled
+     */
+    public RequestScope child() {
+        RequestScope child = new RequestScope();
+        children.add(child);
+        if (cancelled) {
+            child.cancel();
+        }
+        return child;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    static RequestScope current() {
+        return current.get();
+    }
+
+    void register(Call call) {
+        calls.add(call);
+        if (cancelled) {
+            call.cancel();
+        }
+    }
+
+    void unregister(Call call) {
+        calls.remove(call);
+    }
+}
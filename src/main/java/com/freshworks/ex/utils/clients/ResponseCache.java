@@ -0,0 +1,207 @@
+package com.freshworks.ex.utils.clients;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.freshworks.ex.utils.Serializer;
+import okhttp3.Headers;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches successful GET responses of read-mostly endpoints, such as the department list, per
+ * tenant and credentials. Every cached path has its own time to live, and the least recently
+ * used entries are evicted beyond the maximum size. A POST, PUT or DELETE on a resource
+ * collection, e.g. "/api/v2/departments/5", drops the cached responses of that collection.
+ * <p>
+ * The paths and limits are read from the "http-cache.json" resource, or from the file in
+ * SP_HTTP_CACHE_CONFIG. The cache can be switched off with SP_HTTP_CACHE=false.
+ */
+public final class ResponseCache implements Interceptor {
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCache.class);
+    private static final String CONFIG_FILE = "/http-cache.json";
+
+    private static final Map<String, Long> ttlMillis = new HashMap<>();
+    private static int maxEntries;
+    private static final boolean enabled = load();
+    // Access ordered, the eldest entry is the least recently used one
+    private static final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // Bumped on every change of a collection, so responses read before the change are not stored
+    private static final Map<String, Long> generations = new HashMap<>();
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+    private static final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * @return Hits and misses of the cached paths since the JVM was started
+     */
+    public static Stats stats() {
+        return new Stats(hits.get(), misses.get(), invalidations.get());
+    }
+
+    @NotNull
+    @Override
+    public Response intercept(@NotNull Chain chain) throws IOException {
+        Request request = chain.request();
+        if (!enabled) {
+            return chain.proceed(request);
+        }
+        String path = request.url().encodedPath();
+        String collection = request.url().host() + collection(path);
+        if (!"GET".equals(request.method())) {
+            // Before, for responses already read, and after, for GETs that overlapped the change
+            invalidate(collection);
+            try {
+                return chain.proceed(request);
+            } finally {
+                invalidate(collection);
+            }
+        }
+        Long ttl = ttlMillis.get(path);
+        if (ttl == null) {
+            return chain.proceed(request);
+        }
+
+        String key = request.url() + " " + request.header("Authorization");
+        Entry cached = get(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            logger.debug("Serving {} from the HTTP cache", request.url());
+            return cached.toResponse(request);
+        }
+        misses.incrementAndGet();
+        long generation = generation(collection);
+        Response response = chain.proceed(request);
+        ResponseBody body = response.body();
+        if (!response.isSuccessful() || body == null) {
+            return response;
+        }
+        MediaType type = body.contentType();
+        byte[] bytes = body.bytes();
+        put(key, new Entry(collection, response.code(), response.message(), response.headers(), type, bytes,
+                System.currentTimeMillis() + ttl), generation);
+        return response.newBuilder().body(ResponseBody.create(bytes, type)).build();
+    }
+
+    /**
+     * @return The path up to the first id segment, e.g. "/api/v2/departments" for "/api/v2/departments/5/members"
+     */
+    static String collection(String path) {
+        int end = 0;
+        for (String segment : path.split("/")) {
+            if (!segment.isEmpty() && Character.isDigit(segment.charAt(0))) {
+                break;
+            }
+            end += segment.length() + 1;
+        }
+        return end == 0 ? path : path.substring(0, Math.min(end - 1, path.length()));
+    }
+
+    private static synchronized Entry get(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt() < System.currentTimeMillis()) {
+            entries.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    private static synchronized void put(String key, Entry entry, long generation) {
+        if (generation(entry.collection()) != generation) {
+            return;
+        }
+        entries.put(key, entry);
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    private static synchronized long generation(String collection) {
+        return generations.getOrDefault(collection, 0L);
+    }
+
+    private static synchronized void invalidate(String collection) {
+        generations.merge(collection, 1L, Long::sum);
+        if (entries.values().removeIf(entry -> entry.collection().equals(collection))) {
+            invalidations.incrementAndGet();
+            logger.debug("Dropped the cached responses of {}", collection);
+        }
+    }
+
+    private static boolean load() {
+        if ("false".equalsIgnoreCase(System.getenv("SP_HTTP_CACHE"))) {
+            return false;
+        }
+        String override = System.getenv("SP_HTTP_CACHE_CONFIG");
+        try {
+            String config;
+            if (override != null && !override.isBlank()) {
+                config = Files.readString(Paths.get(override));
+            } else {
+                try (InputStream inputStream = ResponseCache.class.getResourceAsStream(CONFIG_FILE)) {
+                    config = inputStream == null ? "{}" : new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+                }
+            }
+            JsonNode json = new Serializer().parse(config);
+            maxEntries = json.path("max_entries").asInt(256);
+            json.path("ttl_seconds").fields()
+                    .forEachRemaining(path -> ttlMillis.put(path.getKey(), path.getValue().asLong() * 1000));
+            return !ttlMillis.isEmpty();
+        } catch (IOException e) {
+            logger.error("Failed to load the HTTP cache configuration, responses are not cached", e);
+            return false;
+        }
+    }
+
+    /**
+     * @param hits          Requests answered from the cache
+     * @param misses        Requests to cached paths that went to the server
+     * @param invalidations Times cached responses were dropped because their collection changed
+     */
+    public record Stats(long hits, long misses, long invalidations) {
+        /**
+         * @return Share of requests to cached paths answered from the cache, 0 to 1
+         */
+        public double hitRatio() {
+            return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d hits, %d misses (%.0f%% hit ratio), %d invalidations", hits, misses,
+                    hitRatio() * 100, invalidations);
+        }
+    }
+
+    private record Entry(String collection, int code, String message, Headers headers, MediaType type,
+                         byte[] body, long expiresAt) {
+        Response toResponse(Request request) {
+            return new Response.Builder()
+                    .request(request)
+                    .protocol(Protocol.HTTP_1_1)
+                    .code(code)
+                    .message(message)
+                    .headers(headers)
+                    .body(ResponseBody.create(body, type))
+                    .build();
+        }
+    }
+}
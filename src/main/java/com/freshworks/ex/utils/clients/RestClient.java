@@ -1,16 +1,21 @@
 package com.freshworks.ex.utils.clients;
 
 import okhttp3.*;
+import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * HTTP client for making REST API calls to Freshservice.
  * This class provides methods for making HTTP requests (GET, POST, PUT, DELETE)
  * to the Freshservice API with proper authentication and JSON handling.
  * It uses OkHttp as the underlying HTTP client library.
+ * Every method has an asynchronous counterpart returning a {@link CompletableFuture}.
  */
 public abstract class RestClient {
     private static final Logger logger = LoggerFactory.getLogger(RestClient.class);
@@ -25,6 +30,26 @@ public abstract class RestClient {
      */
     private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
 
+    /**
+     * Answers GETs of read-mostly endpoints without a network call
+     */
+    private static final ResponseCache responseCache = new ResponseCache();
+
+    /**
+     * Merges identical GETs in flight at the same time
+     */
+    private static final SingleFlight singleFlight = new SingleFlight();
+
+    /**
+     * Retries transient failures, each attempt paced by the rate limiter
+     */
+    private static final RetryPolicy retryPolicy = new RetryPolicy();
+
+    /**
+     * Paces the requests of all clients per tenant
+     */
+    private static final RateLimiter rateLimiter = new RateLimiter();
+
     /**
      * Base URL for the Freshservice API
      */
@@ -40,7 +65,9 @@ public abstract class RestClient {
     protected final String apiKey;
 
     /**
-     * OkHttp client instance for making HTTP requests
+     * OkHttp client instance for making HTTP requests, derived from the shared {@link HttpClients} client.
+     * Requests go through the {@link ResponseCache} and {@link SingleFlight}, are retried by the
+     * {@link RetryPolicy} and paced by the {@link RateLimiter}. Their latency is recorded by {@link EndpointMetrics}
      */
     protected final OkHttpClient client;
 
@@ -54,7 +81,13 @@ public abstract class RestClient {
         this.apiKey = apiKey;
         this.email = null;
         this.password = null;
-        this.client = new OkHttpClient();
+        this.client = HttpClients.derive()
+                .addInterceptor(responseCache)
+                .addInterceptor(singleFlight)
+                .addInterceptor(retryPolicy)
+                .addInterceptor(rateLimiter)
+                .eventListenerFactory(EndpointMetrics::listener)
+                .build();
         logger.debug("Initialized RestClient with baseUrl: {}", baseUrl);
     }
 
@@ -63,7 +96,13 @@ public abstract class RestClient {
         this.apiKey = null;
         this.email = email;
         this.password = password;
-        this.client = new OkHttpClient();
+        this.client = HttpClients.derive()
+                .addInterceptor(responseCache)
+                .addInterceptor(singleFlight)
+                .addInterceptor(retryPolicy)
+                .addInterceptor(rateLimiter)
+                .eventListenerFactory(EndpointMetrics::listener)
+                .build();
         logger.debug("Initialized Private RestClient with baseUrl: {}", baseUrl);
     }
 
@@ -75,13 +114,7 @@ public abstract class RestClient {
      * @throws IOException if the request fails or cannot be executed
      */
     public Response get(String path) throws IOException {
-        logger.debug("Preparing GET request to path: {}", path);
-        Request request = new Request.Builder().url(baseUrl + path)
-                .addHeader(AUTHORIZATION, authorization()).get()
-                .addHeader("accept", "application/json")
-                .build();
-        logger.debug("GET request built with URL: {}", request.url());
-        return execute(request);
+        return execute(getRequest(path));
     }
 
     /**
@@ -93,13 +126,7 @@ public abstract class RestClient {
      * @throws IOException if the request fails or cannot be executed
      */
     public Response post(String path, String payload) throws IOException {
-        logger.debug("Preparing POST request to path: {} with payload: {}", path, payload);
-        Request request = new Request.Builder().url(baseUrl + path)
-                .addHeader(AUTHORIZATION, authorization())
-                .post(RequestBody.create(payload, JSON))
-                .build();
-        logger.debug("POST request built with URL: {}", request.url());
-        return execute(request);
+        return execute(postRequest(path, payload));
     }
 
     /**
@@ -111,13 +138,7 @@ public abstract class RestClient {
      * @throws IOException if the request fails or cannot be executed
      */
     public Response put(String path, String payload) throws IOException {
-        logger.debug("Preparing PUT request to path: {} with payload: {}", path, payload);
-        Request request = new Request.Builder().url(baseUrl + path)
-                .addHeader(AUTHORIZATION, authorization())
-                .put(RequestBody.create(payload, JSON))
-                .build();
-        logger.debug("PUT request built with URL: {}", request.url());
-        return execute(request);
+        return execute(putRequest(path, payload));
     }
 
     /**
@@ -128,17 +149,140 @@ public abstract class RestClient {
      * @throws IOException if the request fails or cannot be executed
      */
     public Response delete(String path) throws IOException {
+        return execute(deleteRequest(path));
+    }
+
+    /**
+     * Asynchronous {@link #get(String)}, see {@link #executeAsync(Request, Duration)}.
+     *
+     * @param path The API endpoint path to request
+     * @return Future of the server's response
+     */
+    public CompletableFuture<Response> getAsync(String path) {
+        return getAsync(path, null);
+    }
+
+    /**
+     * Asynchronous {@link #get(String)} with a deadline, see {@link #executeAsync(Request, Duration)}.
+     *
+     * @param path     The API endpoint path to request
+     * @param deadline Time allowed for the whole call, or null for the client's call timeout
+     * @return Future of the server's response
+     */
+    public CompletableFuture<Response> getAsync(String path, Duration deadline) {
+        return executeAsync(getRequest(path), deadline);
+    }
+
+    /**
+     * Asynchronous {@link #post(String, String)}, see {@link #executeAsync(Request, Duration)}.
+     *
+     * @param path    The API endpoint path to request
+     * @param payload The JSON string to send in the request body
+     * @return Future of the server's response
+     */
+    public CompletableFuture<Response> postAsync(String path, String payload) {
+        return postAsync(path, payload, null);
+    }
+
+    /**
+     * Asynchronous {@link #post(String, String)} with a deadline, see {@link #executeAsync(Request, Duration)}.
+     *
+     * @param path     The API endpoint path to request
+     * @param payload  The JSON string to send in the request body
+     * @param deadline Time allowed for the whole call, or null for the client's call timeout
+     * @return Future of the server's response
+     */
+    public CompletableFuture<Response> postAsync(String path, String payload, Duration deadline) {
+        return executeAsync(postRequest(path, payload), deadline);
+    }
+
+    /**
+     * Asynchronous {@link #put(String, String)}, see {@link #executeAsync(Request, Duration)}.
+     *
+     * @param path    The API endpoint path to request
+     * @param payload The JSON string to send in the request body
+     * @return Future of the server's response
+     */
+    public CompletableFuture<Response> putAsync(String path, String payload) {
+        return putAsync(path, payload, null);
+    }
+
+    /**
+     * Asynchronous {@link #put(String, String)} with a deadline, see {@link #executeAsync(Request, Duration)}.
+     *
+     * @param path     The API endpoint path to request
+     * @param payload  The JSON string to send in the request body
+     * @param deadline Time allowed for the whole call, or null for the client's call timeout
+     * @return Future of the server's response
+     */
+    public CompletableFuture<Response> putAsync(String path, String payload, Duration deadline) {
+        return executeAsync(putRequest(path, payload), deadline);
+    }
+
+    /**
+     * Asynchronous {@link #delete(String)}, see {@link #executeAsync(Request, Duration)}.
+     *
+     * @param path The API endpoint path to request
+     * @return Future of the server's response
+     */
+    public CompletableFuture<Response> deleteAsync(String path) {
+        return deleteAsync(path, null);
+    }
+
+    /**
+     * Asynchronous {@link #delete(String)} with a deadline, see {@link #executeAsync(Request, Duration)}.
+     *
+     * @param path     The API endpoint path to request
+     * @param deadline Time allowed for the whole call, or null for the client's call timeout
+     * @return Future of the server's response
+     */
+    public CompletableFuture<Response> deleteAsync(String path, Duration deadline) {
+        return executeAsync(deleteRequest(path), deadline);
+    }
+
+    private Request getRequest(String path) {
+        logger.debug("Preparing GET request to path: {}", path);
+        Request request = new Request.Builder().url(baseUrl + path).tag(ToolName.class, ToolName.current())
+                .addHeader(AUTHORIZATION, authorization()).get()
+                .addHeader("accept", "application/json")
+                .build();
+        logger.debug("GET request built with URL: {}", request.url());
+        return request;
+    }
+
+    private Request postRequest(String path, String payload) {
+        logger.debug("Preparing POST request to path: {} with payload: {}", path, payload);
+        Request request = new Request.Builder().url(baseUrl + path).tag(ToolName.class, ToolName.current())
+                .addHeader(AUTHORIZATION, authorization())
+                .post(RequestBody.create(payload, JSON))
+                .build();
+        logger.debug("POST request built with URL: {}", request.url());
+        return request;
+    }
+
+    private Request putRequest(String path, String payload) {
+        logger.debug("Preparing PUT request to path: {} with payload: {}", path, payload);
+        Request request = new Request.Builder().url(baseUrl + path).tag(ToolName.class, ToolName.current())
+                .addHeader(AUTHORIZATION, authorization())
+                .put(RequestBody.create(payload, JSON))
+                .build();
+        logger.debug("PUT request built with URL: {}", request.url());
+        return request;
+    }
+
+    private Request deleteRequest(String path) {
         logger.debug("Preparing DELETE request to path: {}", path);
-        Request request = new Request.Builder().url(baseUrl + path)
+        Request request = new Request.Builder().url(baseUrl + path).tag(ToolName.class, ToolName.current())
                 .addHeader(AUTHORIZATION, authorization()).delete()
                 .build();
         logger.debug("DELETE request built with URL: {}", request.url());
-        return execute(request);
+        return request;
     }
 
     /**
      * Executes an HTTP request and returns the response.
      * This method is used internally by all HTTP method-specific methods.
+     * Calls made inside a {@link RequestScope} are aborted when the scope is cancelled.
      *
      * @param request The HTTP request to execute
      * @return Response object containing the server's response
@@ -146,11 +290,74 @@ public abstract class RestClient {
      */
     public Response execute(Request request) throws IOException {
         logger.debug("Executing {} request to: {}", request.method(), request.url());
-        Response response = client.newCall(request).execute();
+        RequestScope scope = RequestScope.current();
+        Call call = client.newCall(request);
+        Response response;
+        if (scope == null) {
+            response = call.execute();
+        } else {
+            scope.register(call);
+            try {
+                response = call.execute();
+            } finally {
+                scope.unregister(call);
+            }
+        }
         logger.debug("Received response with status code: {} for {} request to: {}",
                 response.code(), request.method(), request.url());
         return response;
     }
 
+    /**
+     * Enqueues an HTTP request on the shared dispatcher instead of blocking a thread while it
+     * is in flight. The dispatcher limits of {@link HttpClients} apply.
+     * <p>
+     * Cancelling the returned future, or completing it otherwise (e.g. with
+     * {@link CompletableFuture#orTimeout}), aborts the call. A call enqueued inside a
+     * {@link RequestScope} is aborted when the scope is cancelled.
+     *
+     * @param request  The HTTP request to execute
+     * @param deadline Time allowed for the whole call, including retries and redirects, or null for the
+     *                 client's call timeout
+     * @return Future of the server's response, completed on a dispatcher thread. The caller closes the response
+     */
+    public CompletableFuture<Response> executeAsync(Request request, Duration deadline) {
+        logger.debug("Enqueueing {} request to: {}", request.method(), request.url());
+        RequestScope scope = RequestScope.current();
+        Call call = client.newCall(request);
+        if (deadline != null) {
+            call.timeout().timeout(deadline.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        CompletableFuture<Response> future = new CompletableFuture<>();
+        future.whenComplete((response, error) -> {
+            if (error != null) {
+                call.cancel();
+            }
+            if (scope != null) {
+                scope.unregister(call);
+            }
+        });
+        if (scope != null) {
+            scope.register(call);
+        }
+        call.enqueue(new Callback() {
+            @Override
+            public void onResponse(@NotNull Call call, @NotNull Response response) {
+                logger.debug("Received response with status code: {} for {} request to: {}",
+                        response.code(), request.method(), request.url());
+                if (!future.complete(response)) {
+                    // Cancelled or timed out by the caller in the meantime, nobody will read it
+                    response.close();
+                }
+            }
+
+            @Override
+            public void onFailure(@NotNull Call call, @NotNull IOException e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
     protected abstract String authorization();
 }
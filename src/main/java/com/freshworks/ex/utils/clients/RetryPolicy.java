@@ -0,0 +1,65 @@
+package com.freshworks.ex.utils.clients;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retries requests that failed for a transient reason, so a dropped connection or a 502 is
+ * absorbed in the client instead of reaching the LLM as an error result.
+ * Connection failures, read timeouts and 502/503/504 answers are retried for the idempotent
+ * methods, 429 answers for every method since the request was not processed. Attempts are
+ * spaced with exponential backoff and full jitter; a Retry-After pause is already enforced by
+ * the {@link RateLimiter} before the next attempt is sent.
+ * <p>
+ * SP_HTTP_MAX_ATTEMPTS caps the attempts per request (1 disables retries), SP_HTTP_RETRY_BASE_MS
+ * and SP_HTTP_RETRY_MAX_MS bound the backoff, and SP_HTTP_RETRY_POST=true retries POST as well.
+ */
+public final class RetryPolicy implements Interceptor {
+    private static final Logger logger = LoggerFactory.getLogger(RetryPolicy.class);
+
+    private static final Set<String> IDEMPOTENT = Set.of("GET", "HEAD", "PUT", "DELETE", "OPTIONS");
+    private static final Set<Integer> TRANSIENT = Set.of(502, 503, 504);
+
+    private static final int maxAttempts = Math.max(HttpClients.setting("SP_HTTP_MAX_ATTEMPTS", 3), 1);
+    private static final long baseMillis = HttpClients.setting("SP_HTTP_RETRY_BASE_MS", 100);
+    private static final long maxMillis = HttpClients.setting("SP_HTTP_RETRY_MAX_MS", 2000);
+    private static final boolean retryPost = HttpClients.setting("SP_HTTP_RETRY_POST", 0) != 0;
+
+    @NotNull
+    @Override
+    public Response intercept(@NotNull Chain chain) throws IOException {
+        Request request = chain.request();
+        boolean idempotent = IDEMPOTENT.contains(request.method()) || retryPost;
+        for (int attempt = 1; ; attempt++) {
+            String reason;
+            try {
+                Response response = chain.proceed(request);
+                boolean retryable = response.code() == 429 || (idempotent && TRANSIENT.contains(response.code()));
+                if (!retryable || attempt == maxAttempts) {
+                    return response;
+                }
+                reason = "status " + response.code();
+                response.close();
+            } catch (IOException e) {
+                if (!idempotent || attempt == maxAttempts || chain.call().isCanceled()) {
+                    throw e;
+                }
+                reason = e.toString();
+            }
+            long ceiling = Math.min(maxMillis, baseMillis << Math.min(attempt - 1, 20));
+            long backoff = ThreadLocalRandom.current().nextLong(ceiling + 1);
+            ToolName tool = request.tag(ToolName.class);
+            logger.warn("Retrying {} {} of tool {} after {} (attempt {} of {}) in {} ms", request.method(),
+                    request.url().encodedPath(), tool != null ? tool : "-", reason, attempt + 1, maxAttempts, backoff);
+            RateLimiter.await(chain, backoff);
+        }
+    }
+}
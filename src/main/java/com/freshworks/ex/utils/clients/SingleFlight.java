@@ -0,0 +1,147 @@
+package com.freshworks.ex.utils.clients;
+
+import okhttp3.Headers;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Merges identical GET requests (same URL and credentials) that are in flight at the same time
+ * into one network call. The first request is sent, the ones arriving while it is in flight
+ * wait for it and get a copy of its response. The body is only buffered when other requests
+ * joined, so a lone request is still streamed.
+ * <p>
+ * When the shared call fails, e.g. because the testcase that sent it was cancelled, every
+ * waiting request is sent on its own.
+ */
+public final class SingleFlight implements Interceptor {
+    private static final Logger logger = LoggerFactory.getLogger(SingleFlight.class);
+    private static final long POLL_MILLIS = 100;
+
+    private static final Map<String, Flight> flights = new HashMap<>();
+    private static final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * @return Number of GET requests answered by a call another request made, since the JVM was started
+     */
+    public static long coalesced() {
+        return coalesced.get();
+    }
+
+    @NotNull
+    @Override
+    public Response intercept(@NotNull Chain chain) throws IOException {
+        Request request = chain.request();
+        if (!"GET".equals(request.method())) {
+            return chain.proceed(request);
+        }
+        String key = request.url() + " " + request.header("Authorization");
+        Flight flight;
+        synchronized (flights) {
+            flight = flights.get(key);
+            if (flight == null) {
+                flights.put(key, new Flight());
+            } else {
+                flight.followers++;
+            }
+        }
+        return flight == null ? lead(chain, key) : follow(chain, flight);
+    }
+
+    private Response lead(Chain chain, String key) throws IOException {
+        Flight flight = null;
+        Shared shared = null;
+        try {
+            Response response = chain.proceed(chain.request());
+            // Requests can no longer join, the followers counted so far are all that wait
+            flight = land(key);
+            if (flight.followers == 0 || response.body() == null) {
+                return response;
+            }
+            MediaType type = response.body().contentType();
+            byte[] bytes = response.body().bytes();
+            shared = new Shared(response.code(), response.message(), response.headers(), type, bytes);
+            logger.debug("Sharing {} with {} identical requests", chain.request().url(), flight.followers);
+            return response.newBuilder().body(ResponseBody.create(bytes, type)).build();
+        } finally {
+            if (flight == null) {
+                flight = land(key);
+            }
+            // Without a shared response the followers send their own requests
+            flight.result.complete(shared);
+        }
+    }
+
+    private static Flight land(String key) {
+        synchronized (flights) {
+            return flights.remove(key);
+        }
+    }
+
+    private Response follow(Chain chain, Flight flight) throws IOException {
+        Shared shared = await(chain, flight);
+        if (shared == null) {
+            return chain.proceed(chain.request());
+        }
+        coalesced.incrementAndGet();
+        return shared.toResponse(chain.request());
+    }
+
+    /**
+     * Waits for the shared call, giving up when this call is cancelled.
+     */
+    private static Shared await(Chain chain, Flight flight) throws IOException {
+        try {
+            while (true) {
+                if (chain.call().isCanceled()) {
+                    throw new IOException("Canceled");
+                }
+                try {
+                    return flight.result.get(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    // Poll again
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for an identical request");
+        } catch (ExecutionException e) {
+            // Not completed exceptionally, kept for the checked signature
+            return null;
+        }
+    }
+
+    private static class Flight {
+        private final CompletableFuture<Shared> result = new CompletableFuture<>();
+        private int followers;
+    }
+
+    private record Shared(int code, String message, Headers headers, MediaType type, byte[] body) {
+        Response toResponse(Request request) {
+            return new Response.Builder()
+                    .request(request)
+                    .protocol(Protocol.HTTP_1_1)
+                    .code(code)
+                    .message(message)
+                    .headers(headers)
+                    .body(ResponseBody.create(body, type))
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.freshworks.ex.utils.clients;
+
+import java.util.function.Supplier;
+
+/**
+ * Name of the tool on whose behalf HTTP calls are made. It is bound to the current thread with
+ * {@link #call(String, Supplier)}, and {@link RestClient} tags its requests with it, so the
+ * client layer can tell which tool a retried or slow request belongs to.
+ *
+ * @param name Tool name
+ */
+public record ToolName(String name) {
+    private static final ThreadLocal<ToolName> current = new ThreadLocal<>();
+
+    /**
+     * Runs the action with the tool name bound to the current thread.
+     *
+     * @param name   Tool name
+     * @param action The action making HTTP calls
+     * @param <T>    Result type of the action
+     * @return The result of the action
+     */
+    public static <T> T call(String name, Supplier<T> action) {
+        ToolName previous = current.get();
+        current.set(new ToolName(name));
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                current.remove();
+            } else {
+                current.set(previous);
+            }
+        }
+    }
+
+    static ToolName current() {
+        return current.get();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}